@@ -0,0 +1,114 @@
+/**
+ *
+ */
+package analyzer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The reviews of one source file after tokenization, normalization and stemming, kept in
+ * columns: review IDs, ratings, languages, and the token sequences of all reviews back to back as IDs into
+ * a symbol table local to the file. This is what CorpusCache stores, so re-analyzing a file
+ * needs neither the json parser nor the tokenizer and stemmer.
+ */
+public class AnalyzedFile {
+
+    String m_analysis;                  // language settings the tokens were stemmed with
+    String[] m_symbols;                 // symbol ID -> analyzed token
+    int m_numSymbols;
+    HashMap<String, Integer> m_symbolIDs;   // analyzed token -> symbol ID, only while building
+
+    String[] m_ids;                     // review -> review ID
+    double[] m_ratings;                 // review -> overall rating
+    Language[] m_languages;             // review -> language it was analyzed in
+    int[] m_tokenStart;                 // review -> position of its first token, m_tokenStart[reviews] == tokens
+    int[] m_tokens;                     // symbol IDs of all reviews back to back
+    int m_numReviews;
+
+    public AnalyzedFile(String analysis) {
+        m_analysis = analysis;
+        m_symbols = new String[256];
+        m_numSymbols = 0;
+        m_symbolIDs = new HashMap<>();
+        m_ids = new String[16];
+        m_ratings = new double[16];
+        m_languages = new Language[16];
+        m_tokenStart = new int[17];
+        m_tokens = new int[1024];
+        m_numReviews = 0;
+    }
+
+    // read form: the columns come from a cache file
+    AnalyzedFile(String analysis, String[] symbols, String[] ids, double[] ratings, Language[] languages, int[] tokenStart, int[] tokens) {
+        m_analysis = analysis;
+        m_symbols = symbols;
+        m_numSymbols = symbols.length;
+        m_ids = ids;
+        m_ratings = ratings;
+        m_languages = languages;
+        m_tokenStart = tokenStart;
+        m_tokens = tokens;
+        m_numReviews = ids.length;
+    }
+
+    public void addReview(String id, double rating, Language language, String[] tokens) {
+        if (m_numReviews == m_ids.length) {
+            m_ids = Arrays.copyOf(m_ids, m_numReviews * 2);
+            m_ratings = Arrays.copyOf(m_ratings, m_numReviews * 2);
+            m_languages = Arrays.copyOf(m_languages, m_numReviews * 2);
+            m_tokenStart = Arrays.copyOf(m_tokenStart, m_numReviews * 2 + 1);
+        }
+        int start = m_tokenStart[m_numReviews];
+        if (start + tokens.length > m_tokens.length)
+            m_tokens = Arrays.copyOf(m_tokens, Math.max(m_tokens.length * 2, start + tokens.length));
+
+        for (int i = 0; i < tokens.length; i++)
+            m_tokens[start + i] = symbolOf(tokens[i]);
+        m_ids[m_numReviews] = id;
+        m_ratings[m_numReviews] = rating;
+        m_languages[m_numReviews] = language;
+        m_tokenStart[++m_numReviews] = start + tokens.length;
+    }
+
+    int symbolOf(String token) {
+        Integer symbol = m_symbolIDs.get(token);
+        if (symbol != null)
+            return symbol;
+
+        if (m_numSymbols == m_symbols.length)
+            m_symbols = Arrays.copyOf(m_symbols, m_numSymbols * 2);
+        m_symbols[m_numSymbols] = token;
+        m_symbolIDs.put(token, m_numSymbols);
+        return m_numSymbols++;
+    }
+
+    public String getAnalysis() {
+        return m_analysis;
+    }
+
+    public int numReviews() {
+        return m_numReviews;
+    }
+
+    public String getID(int review) {
+        return m_ids[review];
+    }
+
+    public double getRating(int review) {
+        return m_ratings[review];
+    }
+
+    public Language getLanguage(int review) {
+        return m_languages[review];
+    }
+
+    // analyzed tokens of a review; equal tokens share one String
+    public String[] getTokens(int review) {
+        int start = m_tokenStart[review];
+        String[] tokens = new String[m_tokenStart[review + 1] - start];
+        for (int i = 0; i < tokens.length; i++)
+            tokens[i] = m_symbols[m_tokens[start + i]];
+        return tokens;
+    }
+}
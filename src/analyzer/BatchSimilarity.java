@@ -0,0 +1,134 @@
+/**
+ *
+ */
+package analyzer;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import structures.CsrMatrix;
+import structures.TopK;
+
+/**
+ * Scores every query against every corpus review in one batch.
+ * Queries are split into blocks of at most queryBlock rows, smaller when there are few queries,
+ * so every thread gets one. When there are still fewer blocks than threads, the corpus is also
+ * split into slices scored by separate tasks, and the per-slice top-k heaps are merged.
+ * Within a task the corpus is walked in tiles small enough to stay in cache while every query of
+ * the block is scored against it, each query scattered into a dense array so a corpus row is a
+ * plain gather-sum.
+ */
+public class BatchSimilarity {
+
+    int m_threads;          // worker threads
+    int m_queryBlock;       // largest number of queries per task
+    int m_corpusBlock;      // corpus rows per tile
+
+    public BatchSimilarity(int threads) {
+        this(threads, 32, 2048);
+    }
+
+    public BatchSimilarity(int threads, int queryBlock, int corpusBlock) {
+        m_threads = Math.max(1, threads);
+        m_queryBlock = queryBlock;
+        m_corpusBlock = corpusBlock;
+    }
+
+    // for each query row, the k most cosine-similar corpus rows best first; scores[q] receives their scores
+    public int[][] topK(CsrMatrix queries, CsrMatrix corpus, int k, double[][] scores) {
+        int numQueries = queries.numRows(), numDocs = corpus.numRows();
+        int[][] top = new int[numQueries][];
+        if (numQueries == 0)
+            return top;
+
+        int queryBlock = Math.max(1, Math.min(m_queryBlock, (numQueries + m_threads - 1) / m_threads));
+        int numBlocks = (numQueries + queryBlock - 1) / queryBlock;
+        int numTiles = Math.max(1, (numDocs + m_corpusBlock - 1) / m_corpusBlock);
+        int numSlices = Math.min(numTiles, (m_threads + numBlocks - 1) / numBlocks);
+        int sliceRows = (numDocs + numSlices - 1) / numSlices;
+
+        ExecutorService pool = Executors.newFixedThreadPool(m_threads);
+        ArrayList<Future<TopK[]>> tasks = new ArrayList<>();   // block-major, then slice
+        for (int b = 0; b < numBlocks; b++) {
+            int from = b * queryBlock, to = Math.min(from + queryBlock, numQueries);
+            for (int s = 0; s < numSlices; s++) {
+                int d0 = Math.min(s * sliceRows, numDocs), d1 = Math.min(d0 + sliceRows, numDocs);
+                tasks.add(pool.submit(() -> scoreBlock(queries, corpus, from, to, d0, d1, k)));
+            }
+        }
+        pool.shutdown();
+
+        try {
+            for (int b = 0; b < numBlocks; b++) {
+                // ties break on the lower ID, so merging slices gives the same top k as one pass
+                TopK[] heaps = tasks.get(b * numSlices).get();
+                for (int s = 1; s < numSlices; s++) {
+                    TopK[] slice = tasks.get(b * numSlices + s).get();
+                    for (int i = 0; i < heaps.length; i++)
+                        merge(slice[i], heaps[i]);
+                }
+
+                for (int i = 0; i < heaps.length; i++) {
+                    int q = b * queryBlock + i;
+                    double[] kept = new double[heaps[i].size()];
+                    top[q] = heaps[i].drain(kept);
+                    if (scores != null)
+                        scores[q] = kept;
+                }
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            // no partial result: rows after the failed block would be left null
+            pool.shutdownNow();
+            throw new RuntimeException("Failed to score query block", e.getCause());
+        }
+        return top;
+    }
+
+    // offer everything kept in one heap to another, emptying the first
+    static void merge(TopK from, TopK into) {
+        double[] scores = new double[from.size()];
+        int[] ids = from.drain(scores);
+        for (int i = 0; i < ids.length; i++)
+            into.offer(ids[i], scores[i]);
+    }
+
+    // heaps of the best corpus rows in [docFrom, docTo) for the queries in [from, to)
+    TopK[] scoreBlock(CsrMatrix queries, CsrMatrix corpus, int from, int to, int docFrom, int docTo, int k) {
+        double[] dense = new double[Math.max(queries.numColumns(), corpus.numColumns())];
+        TopK[] heaps = new TopK[to - from];
+        for (int q = from; q < to; q++)
+            heaps[q - from] = new TopK(k);
+
+        for (int d0 = docFrom; d0 < docTo; d0 += m_corpusBlock) {
+            int d1 = Math.min(d0 + m_corpusBlock, docTo);
+
+            for (int q = from; q < to; q++) {
+                double norm = queries.getNorm(q);
+                if (norm == 0)
+                    continue;
+
+                for (int e = queries.rowStart(q); e < queries.rowEnd(q); e++)
+                    dense[queries.getColumn(e)] = queries.getValue(e);
+
+                for (int d = d0; d < d1; d++) {
+                    double dot = 0;
+                    for (int e = corpus.rowStart(d); e < corpus.rowEnd(d); e++)
+                        dot += dense[corpus.getColumn(e)] * corpus.getValue(e);
+                    if (dot > 0)
+                        heaps[q - from].offer(d, dot / (norm * corpus.getNorm(d)));
+                }
+
+                for (int e = queries.rowStart(q); e < queries.rowEnd(q); e++)
+                    dense[queries.getColumn(e)] = 0;
+            }
+        }
+        return heaps;
+    }
+}
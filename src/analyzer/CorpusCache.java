@@ -0,0 +1,144 @@
+/**
+ *
+ */
+package analyzer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Directory of binary AnalyzedFile caches, one per source json file.
+ * A cache remembers the length and modification time of its source and is ignored once either
+ * changes. Files are written to a temporary name and renamed, so concurrent loaders and crashes
+ * never leave a half-written cache behind.
+ *
+ * Layout (big-endian): {MAGIC, VERSION}, long sourceLength, long sourceModified, string analysis,
+ * int numSymbols, numSymbols strings, int numReviews, numReviews strings, double ratings[numReviews],
+ * byte languages[numReviews] (Language ordinals), int tokenStart[numReviews+1], int tokens[tokenStart[numReviews]]; a string is an int byte count
+ * followed by its UTF-8 bytes.
+ */
+public class CorpusCache {
+
+    static final int MAGIC = 0x52564341;    // "RVCA"
+    static final int VERSION = 2;
+
+    File m_directory;
+
+    public CorpusCache(String directory) {
+        m_directory = new File(directory);
+        m_directory.mkdirs();
+    }
+
+    // cache file of a source; the hash of the full path keeps equally named sources apart
+    File cacheFile(File source) {
+        String path = source.getAbsolutePath();
+        return new File(m_directory, source.getName() + "-" + Integer.toHexString(path.hashCode()) + ".cache");
+    }
+
+    // the cached analysis of a source, or null if there is none or it is out of date;
+    // callers compare getAnalysis() with their language settings
+    public AnalyzedFile read(File source) {
+        return read(source, true);
+    }
+
+    // without checkSource the last analysis written is returned even if the source changed or is gone
+    public AnalyzedFile read(File source, boolean checkSource) {
+        File file = cacheFile(source);
+        if (!file.isFile())
+            return null;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                return null;
+            long length = buffer.getLong(), modified = buffer.getLong();
+            if (checkSource && (length != source.length() || modified != source.lastModified()))
+                return null;
+
+            String analysis = readString(buffer);
+            String[] symbols = readStrings(buffer);
+            String[] ids = readStrings(buffer);
+            double[] ratings = new double[ids.length];
+            buffer.asDoubleBuffer().get(ratings);
+            buffer.position(buffer.position() + ratings.length * 8);
+            Language[] languages = new Language[ids.length];
+            for (int i = 0; i < languages.length; i++)
+                languages[i] = Language.values()[buffer.get()];
+            int[] tokenStart = new int[ids.length + 1];
+            buffer.asIntBuffer().get(tokenStart);
+            buffer.position(buffer.position() + tokenStart.length * 4);
+            int[] tokens = new int[tokenStart[ids.length]];
+            buffer.asIntBuffer().get(tokens);
+
+            return new AnalyzedFile(analysis, symbols, ids, ratings, languages, tokenStart, tokens);
+        } catch (IOException | RuntimeException e) {
+            // unreadable or truncated: analyze the source again and overwrite the cache
+            return null;
+        }
+    }
+
+    static String[] readStrings(ByteBuffer buffer) {
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++)
+            strings[i] = readString(buffer);
+        return strings;
+    }
+
+    static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public void write(File source, AnalyzedFile analyzed) {
+        File file = cacheFile(source);
+        File temp = new File(m_directory, file.getName() + "." + Thread.currentThread().getId() + ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(source.length());
+                out.writeLong(source.lastModified());
+                writeString(out, analyzed.m_analysis);
+
+                writeStrings(out, analyzed.m_symbols, analyzed.m_numSymbols);
+                writeStrings(out, analyzed.m_ids, analyzed.m_numReviews);
+                for (int i = 0; i < analyzed.m_numReviews; i++)
+                    out.writeDouble(analyzed.m_ratings[i]);
+                for (int i = 0; i < analyzed.m_numReviews; i++)
+                    out.writeByte(analyzed.m_languages[i].ordinal());
+                for (int i = 0; i <= analyzed.m_numReviews; i++)
+                    out.writeInt(analyzed.m_tokenStart[i]);
+                for (int i = 0; i < analyzed.m_tokenStart[analyzed.m_numReviews]; i++)
+                    out.writeInt(analyzed.m_tokens[i]);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.format("[Error]Failed to write cache %s!", file);
+            e.printStackTrace();
+            temp.delete();
+        }
+    }
+
+    public void delete(File source) {
+        cacheFile(source).delete();
+    }
+
+    static void writeStrings(DataOutputStream out, String[] strings, int count) throws IOException {
+        out.writeInt(count);
+        for (int i = 0; i < count; i++)
+            writeString(out, strings[i]);
+    }
+
+    static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
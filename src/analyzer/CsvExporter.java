@@ -0,0 +1,190 @@
+/**
+ *
+ */
+package analyzer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+import structures.Lexicon;
+
+/**
+ * Streaming CSV writer for dictionary tables with millions of rows.
+ * Rows are encoded straight into one large byte buffer, numbers digit by digit and terms through
+ * a reused StringBuilder, so no String is built per row; the buffer goes to a FileChannel, or
+ * through gzip when the file name ends with ".gz".
+ */
+public class CsvExporter implements Closeable {
+
+    static final int BUFFER_SIZE = 1 << 20;
+
+    FileChannel m_channel;      // plain output
+    OutputStream m_gzip;        // compressed output, null for plain files
+    byte[] m_buffer;
+    int m_position;             // bytes in m_buffer not written yet
+    byte[] m_digits;            // scratch for formatting numbers
+    StringBuilder m_term;       // scratch for the string form of terms
+
+    public CsvExporter(String filename) throws IOException {
+        if (filename.endsWith(".gz"))
+            m_gzip = new GZIPOutputStream(new FileOutputStream(filename), 1 << 16);
+        else
+            m_channel = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        m_buffer = new byte[BUFFER_SIZE];
+        m_position = 0;
+        m_digits = new byte[20];
+        m_term = new StringBuilder();
+    }
+
+    // one row per ranked term: the term, its rank from 1, and the requested columns out of "ttf", "df" and "idf"
+    public void writeRanking(Lexicon vocab, int[] ranked, String... columns) throws IOException {
+        append("Token,Rank");
+        for (String column : columns) {
+            if (!column.equals("ttf") && !column.equals("df") && !column.equals("idf"))
+                throw new IllegalArgumentException("Unknown column " + column);
+            append(',').append(column.toUpperCase());
+        }
+        append('\n');
+
+        for (int i = 0; i < ranked.length; i++) {
+            int id = ranked[i];
+            m_term.setLength(0);
+            appendField(vocab.appendTerm(m_term, id)).append(',').append(i + 1);
+            for (String column : columns) {
+                append(',');
+                if (column.equals("ttf"))
+                    append(vocab.getTTF(id));
+                else if (column.equals("df"))
+                    append(vocab.getDF(id));
+                else
+                    append(vocab.getIDF(id), 6);
+            }
+            append('\n');
+        }
+    }
+
+    public CsvExporter append(char c) throws IOException {
+        if (m_position == m_buffer.length)
+            flush();
+        m_buffer[m_position++] = (byte) c;  // only used for ASCII
+        return this;
+    }
+
+    // UTF-8 encoding of a string
+    public CsvExporter append(CharSequence text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            if (m_position + 4 > m_buffer.length)
+                flush();
+            int c = text.charAt(i);
+            if (c < 0x80)
+                m_buffer[m_position++] = (byte) c;
+            else if (c < 0x800) {
+                m_buffer[m_position++] = (byte) (0xC0 | c >> 6);
+                m_buffer[m_position++] = (byte) (0x80 | c & 0x3F);
+            }
+            else if (Character.isHighSurrogate((char) c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                c = Character.toCodePoint((char) c, text.charAt(++i));
+                m_buffer[m_position++] = (byte) (0xF0 | c >> 18);
+                m_buffer[m_position++] = (byte) (0x80 | c >> 12 & 0x3F);
+                m_buffer[m_position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                m_buffer[m_position++] = (byte) (0x80 | c & 0x3F);
+            }
+            else {
+                m_buffer[m_position++] = (byte) (0xE0 | c >> 12);
+                m_buffer[m_position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                m_buffer[m_position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return this;
+    }
+
+    // a field quoted only when it holds a separator, quote or line break
+    public CsvExporter appendField(CharSequence field) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < field.length() && !quote; i++) {
+            char c = field.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote)
+            return append(field);
+
+        append('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"')
+                append('"');
+            append(field.subSequence(i, i + 1));
+        }
+        return append('"');
+    }
+
+    public CsvExporter append(long value) throws IOException {
+        if (value == Long.MIN_VALUE)
+            return append(Long.toString(value));
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+
+        int n = m_digits.length;
+        do {
+            m_digits[--n] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+
+        if (m_position + m_digits.length > m_buffer.length)
+            flush();
+        System.arraycopy(m_digits, n, m_buffer, m_position, m_digits.length - n);
+        m_position += m_digits.length - n;
+        return this;
+    }
+
+    // fixed-point with the given number of decimals, e.g. 2.302585 for 6
+    public CsvExporter append(double value, int decimals) throws IOException {
+        long scale = 1;
+        for (int i = 0; i < decimals; i++)
+            scale *= 10;
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) * scale >= Long.MAX_VALUE / 2)
+            return append(Double.toString(value));
+
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled > 0)
+            append('-');
+        append(scaled / scale);
+        if (decimals > 0) {
+            append('.');
+            long fraction = scaled % scale;
+            for (long digit = scale / 10; digit > fraction && digit > 1; digit /= 10)
+                append('0');
+            append(fraction);
+        }
+        return this;
+    }
+
+    public void flush() throws IOException {
+        if (m_gzip != null)
+            m_gzip.write(m_buffer, 0, m_position);
+        else {
+            ByteBuffer buffer = ByteBuffer.wrap(m_buffer, 0, m_position);
+            while (buffer.hasRemaining())
+                m_channel.write(buffer);
+        }
+        m_position = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            if (m_gzip != null)
+                m_gzip.close();
+            else
+                m_channel.close();
+        }
+    }
+}
@@ -6,9 +6,13 @@ package analyzer;
 import java.io.*;
 //import java.util.Arrays;
 import java.util.*;
-
-import org.tartarus.snowball.SnowballStemmer;
-import org.tartarus.snowball.ext.englishStemmer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntToLongFunction;
+import java.util.function.ToIntFunction;
 
 import json.JSONArray;
 import json.JSONException;
@@ -19,38 +23,131 @@ import opennlp.tools.tokenize.TokenizerModel;
 import opennlp.tools.util.InvalidFormatException;
 import structures.LanguageModel;
 import structures.Post;
+import structures.SeenSet;
+import structures.TermSelection;
+import structures.SparseVector;
+import structures.CsrMatrix;
+import structures.InvertedIndex;
+import structures.Lexicon;
+import structures.MappedVocabulary;
 import structures.Token;
+import structures.Vocabulary;
 
 public class DocAnalyzer {
 	int m_N;    	                            //N-gram to be created
-    HashSet<String> m_stopwords;                //a list of stopwords
+    NGramExtractor m_ngrams;                    // N-gram stage shared by training and test encoding
+    EnumMap<Language, HashSet<String>> m_stopwords;     // stemmed stopwords of each language
 	ArrayList<Post> m_reviews;                  // all loaded reviews
-    HashMap<String, Token> m_stats;	            // table of tokens
-    List<Map.Entry<String, Token>> m_sorted;   	// table of tokens sorted by TTF
-    Tokenizer m_tokenizer;
+    Vocabulary m_stats;	                        // table of tokens
+    int[] m_sorted;                             // token IDs sorted by TTF or DF
+    Lexicon m_lexicon;                          // mapped vocabulary file for test encoding, null to use m_stats
+    InvertedIndex m_index;                      // posting lists over the encoded test reviews
+    ThreadLocal<Tokenizer> m_tokenizer;         // TokenizerME is not thread-safe, one per thread
+    Language m_language;                        // language of reviews whose language is not detected
+    LanguageDetector m_detector;                // picks the language of each review, null to use m_language for all
+    EnumMap<Language, StringBuilder> m_samples; // raw stopword lists, the profiles of the detector
+    EnumMap<Language, StemCache> m_stemCaches;  // normalized token -> stem, per language
+    EnumMap<Language, StemTable> m_stemTables;  // precomputed stems behind the caches
+    int m_stemCacheSize;
+    ThreadLocal<SeenSet> m_seen;                // N-grams already counted in the review being analyzed
+    CorpusCache m_cache;                        // analyzed source files, null to always parse the json
 //    LanguageModel m_langModel;
 	
 	public DocAnalyzer(String tokenModel, int N) throws InvalidFormatException, FileNotFoundException, IOException {
 		m_N = N;
+		m_ngrams = new NGramExtractor(1, N);
 		m_reviews = new ArrayList<>();
-		m_tokenizer = new TokenizerME(new TokenizerModel(new FileInputStream(tokenModel)));
-		m_stopwords = new HashSet<>();
-		m_stats = new HashMap<>();
+		TokenizerModel model = new TokenizerModel(new FileInputStream(tokenModel));
+		m_tokenizer = ThreadLocal.withInitial(() -> new TokenizerME(model));
+		m_stopwords = new EnumMap<>(Language.class);
+		m_samples = new EnumMap<>(Language.class);
+		m_stemCaches = new EnumMap<>(Language.class);
+		m_stemTables = new EnumMap<>(Language.class);
+		m_stemCacheSize = 1 << 18;
+		m_stats = new Vocabulary();
+		m_index = new InvertedIndex();
+		m_seen = ThreadLocal.withInitial(SeenSet::new);
+		setLanguage(Language.ENGLISH);
+	}
+
+	// resize the stem caches, e.g. after checking their hit rate against a corpus
+	public void setStemCacheSize(int capacity) {
+		m_stemCacheSize = capacity;
+		m_stemCaches.replaceAll((language, cache) -> newStemCache(language));
+	}
+
+	StemCache newStemCache(Language language) {
+		return new StemCache(new StemmerPool(language::newStemmer), m_stemTables.get(language), m_stemCacheSize);
+	}
+
+	public StemCache getStemCache() {
+		return m_stemCaches.get(m_language);
+	}
+
+	// analyze reviews in a language, e.g. Language.GERMAN, unless their language is detected
+	public void setLanguage(Language language) {
+		m_language = language;
+		prepare(language);
+	}
+
+	// stemmers and stopword sets are created here, during setup, so worker threads only look them up
+	void prepare(Language language) {
+		m_stemCaches.computeIfAbsent(language, this::newStemCache);
+		m_stopwords.computeIfAbsent(language, l -> new HashSet<>());
+	}
+
+	// pick the language of each review among those with a stopword list, the lists serving as the
+	// language profiles; reviews without letters are analyzed in the language set with setLanguage
+	public void enableLanguageDetection() {
+		m_detector = new LanguageDetector(m_samples);
+	}
+
+	public void disableLanguageDetection() {
+		m_detector = null;
+	}
+
+	// language a review is analyzed in
+	Language languageOf(String content) {
+		Language language = m_detector == null ? null : m_detector.detect(content);
+		return language == null ? m_language : language;
+	}
+
+	// keep the analyzed reviews of every loaded file in a directory, so later runs skip parsing and stemming;
+	// Posts restored from the cache carry only their ID and rating, not content, author, date or location
+	public void setCacheDirectory(String directory) {
+		m_cache = new CorpusCache(directory);
+	}
+
+	// only count N-grams with minN <= N <= maxN, e.g. (2, 3) for bigrams and trigrams
+	public void setNGramRange(int minN, int maxN) {
+		m_ngrams = new NGramExtractor(minN, maxN);
+		m_N = maxN;
 	}
 
 	// load stopwords
     public void loadStopwords(String filename) {
+        loadStopwords(m_language, filename);
+    }
+
+    // load the stopwords of a language, which also profile it for language detection
+    public void loadStopwords(Language language, String filename) {
+        prepare(language);
+        HashSet<String> stopwords = m_stopwords.get(language);
+        StringBuilder sample = m_samples.computeIfAbsent(language, l -> new StringBuilder());
         try {
             BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(filename), "UTF-8"));
             String line;
 
             while ((line = reader.readLine()) != null) {
-                line = snowballStemming(normalize(line)).trim();
+                sample.append(line).append('\n');
+                line = stem(language, language.normalize(line)).trim();
                 if (!line.isEmpty())
-                    m_stopwords.add(line);
+                    stopwords.add(line);
             }
             reader.close();
-            System.out.format("Loading %d stopwords from %s\n", m_stopwords.size(), filename);
+            if (m_detector != null)
+                enableLanguageDetection();
+            System.out.format("Loading %d stopwords from %s\n", stopwords.size(), filename);
         } catch(IOException e){
             System.err.format("[Error]Failed to open file %s!!", filename);
         }
@@ -86,10 +183,7 @@ public class DocAnalyzer {
         int size = m_reviews.size();
 		for (File f : dir.listFiles()) {
 			if (f.isFile() && f.getName().endsWith(suffix)) {
-			    if(purpose.equals("train"))
-                    analyzeDocument(loadJson(f.getAbsolutePath()));
-                else if (purpose.equals("test"))
-                    encodeTestDocs(loadJson(f.getAbsolutePath()), m_reviews);
+			    loadReviews(f.getAbsolutePath(), purpose, m_stats, m_reviews);
             }
 			else if (f.isDirectory())
 				loadDirectory(f.getAbsolutePath(), suffix, purpose);
@@ -98,184 +192,555 @@ public class DocAnalyzer {
         System.out.println("Loading " + size + " review documents from " + folder);
     }
 
+    // load files in a directory on several threads, each worker counting into its own dictionary
+    public void loadDirectory(String folder, String suffix, String purpose, int threads) {
+        if (threads <= 1 || !purpose.equals("train")) {
+            loadDirectory(folder, suffix, purpose);
+            return;
+        }
+
+        ArrayList<File> files = new ArrayList<>();
+        listFiles(new File(folder), suffix, files);
+
+        // reviews are kept per file so m_reviews ends up in the same order as the serial path
+        ArrayList<ArrayList<Post>> fileReviews = new ArrayList<>(Collections.nCopies(files.size(), null));
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayList<Future<Vocabulary>> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                Vocabulary stats = new Vocabulary();
+                int i;
+                while ((i = next.getAndIncrement()) < files.size()) {
+                    ArrayList<Post> reviews = new ArrayList<>();
+                    loadReviews(files.get(i).getAbsolutePath(), purpose, stats, reviews);
+                    fileReviews.set(i, reviews);
+                }
+                return stats;
+            }));
+        }
+        pool.shutdown();
+
+        // DF sums exactly since each document is counted by one worker only; a failed worker
+        // fails the load, as on the serial path, rather than leaving a partial dictionary
+        ArrayList<Vocabulary> counts = new ArrayList<>();
+        try {
+            for (Future<Vocabulary> worker : workers)
+                counts.add(worker.get());
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            pool.shutdownNow();
+            throw new RuntimeException("Failed to load " + folder, e.getCause());
+        }
+        for (Vocabulary stats : counts)
+            m_stats.merge(stats);
+
+        int size = 0;
+        for (ArrayList<Post> reviews : fileReviews) {
+            if (reviews != null) {
+                m_reviews.addAll(reviews);
+                size += reviews.size();
+            }
+        }
+        System.out.println("Loading " + size + " review documents from " + folder + " with " + threads + " threads");
+    }
+
+    // stream the reviews of a json file into training or test encoding, one review at a time;
+    // with a cache directory an up-to-date analysis of the file is read instead of the json.
+    // A file is only counted, and cached, once it has been read to the end: one that fails to parse
+    // contributes nothing, as when the whole file was parsed in one piece
+    void loadReviews(String filename, String purpose, Vocabulary stats, ArrayList<Post> reviews) {
+        File source = new File(filename);
+        AnalyzedFile cached = readCache(source);
+        if (cached != null) {
+            processFile(cached, purpose, stats, reviews);
+            return;
+        }
+
+        ArrayList<Post> posts = new ArrayList<>();
+        AnalyzedFile analyzed;
+        try {
+            analyzed = readReviews(source, posts);
+        } catch (IOException e) {
+            System.err.format("[Error]Failed to open file %s!", filename);
+            e.printStackTrace();
+            return;
+        } catch (JSONException e) {
+            System.err.format("[Error]Failed to parse json file %s!", filename);
+            e.printStackTrace();
+            return;
+        }
+
+        for (int i = 0; i < posts.size(); i++)
+            processReview(posts.get(i), analyzed.getTokens(i), analyzed.getLanguage(i), purpose, stats, reviews);
+        if (m_cache != null)
+            m_cache.write(source, analyzed);
+    }
+
+    // the cached analysis of a source if it is up to date and was made with the current language settings
+    AnalyzedFile readCache(File source) {
+        AnalyzedFile cached = m_cache == null ? null : m_cache.read(source);
+        return cached != null && cached.getAnalysis().equals(analysis()) ? cached : null;
+    }
+
+    // the analyzed reviews of a json file, from the cache directory if it holds an up-to-date copy
+    AnalyzedFile analyzeFile(File source) throws IOException, JSONException {
+        AnalyzedFile analyzed = readCache(source);
+        if (analyzed != null)
+            return analyzed;
+
+        analyzed = readReviews(source, null);
+        if (m_cache != null)
+            m_cache.write(source, analyzed);
+        return analyzed;
+    }
+
+    // analyze every review of a json file, also collecting the parsed reviews into posts unless it is null;
+    // a syntax error anywhere in the file fails the whole file
+    AnalyzedFile readReviews(File source, ArrayList<Post> posts) throws IOException, JSONException {
+        AnalyzedFile analyzed = new AnalyzedFile(analysis());
+        try (ReviewReader reader = new ReviewReader(source.getAbsolutePath())) {
+            while (reader.hasNext()) {
+                Post review = reader.next();
+                Language language = languageOf(review.getContent());
+                analyzed.addReview(review.getID(), review.getRating(), language, analyzeTokens(review.getContent(), language));
+                if (posts != null)
+                    posts.add(review);
+            }
+        } catch (ReviewReader.MalformedReviewsException e) {
+            throw e.getCause();
+        }
+        return analyzed;
+    }
+
+    void processFile(AnalyzedFile analyzed, String purpose, Vocabulary stats, ArrayList<Post> reviews) {
+        for (int i = 0; i < analyzed.numReviews(); i++) {
+            Post review = new Post(analyzed.getID(i));
+            review.setRating(analyzed.getRating(i));
+            processReview(review, analyzed.getTokens(i), analyzed.getLanguage(i), purpose, stats, reviews);
+        }
+    }
+
+    void processReview(Post review, String[] tokens, Language language, String purpose, Vocabulary stats, ArrayList<Post> reviews) {
+        if (purpose.equals("train"))
+            analyzeReview(review, tokens, language, stats, reviews);
+        else if (purpose.equals("test"))
+            encodeReview(review, tokens, reviews, m_index);
+        else if (purpose.equals("query"))
+            encodeReview(review, tokens, reviews, null);
+    }
+
+    // incremental training: bring the dictionary persisted in stateDir up to date with a directory.
+    // Only new and changed files are analyzed; the counts of the previous version of a changed file,
+    // and of recorded files that no longer exist, are subtracted using the analysis kept in stateDir.
+    // Changing the stopwords or N-gram range recounts every recorded file from the kept analyses,
+    // changing the language settings reanalyzes them.
+    // The manifest is the commit point: it is marked pending before any kept analysis changes, and
+    // names the new vocabulary generation only once that file is complete. An update interrupted in
+    // between leaves a pending manifest, and the next one recounts from the kept analyses it records.
+    public void updateDirectory(String folder, String suffix, String stateDir) {
+        File state = new File(stateDir), manifestFile = new File(state, "manifest.txt");
+        CorpusCache snapshots = new CorpusCache(new File(state, "files").getPath());
+
+        try {
+            FileManifest manifest = FileManifest.load(manifestFile);
+            File vocabFile = vocabularyFile(state, manifest.getGeneration());
+            boolean reset = manifest.isPending() || !manifest.getSettings().equals(settings()) || !vocabFile.isFile();
+            m_stats = reset ? new Vocabulary() : new Vocabulary(new MappedVocabulary(vocabFile.getPath()));
+            manifest.setPending(true);
+            manifest.save(manifestFile);
+
+            ArrayList<File> files = new ArrayList<>();
+            if (reset) {
+                // recount what was recorded under the old settings before looking at the directory
+                for (String path : new ArrayList<>(manifest.m_files.keySet())) {
+                    File source = new File(path);
+                    AnalyzedFile snapshot = snapshots.read(source, false);
+                    if (source.isFile() && snapshot != null && snapshot.getAnalysis().equals(analysis()) && !manifest.isChanged(source))
+                        processFile(snapshot, "train", m_stats, m_reviews);
+                    else {
+                        // counted afresh below if it still exists
+                        manifest.remove(source);
+                        if (source.isFile())
+                            files.add(source);
+                    }
+                }
+                manifest.m_settings = settings();
+            }
+
+            // files recorded but gone, or reanalyzed below: take their old counts away first
+            listFiles(new File(folder), suffix, files);
+            boolean removed = false;
+            for (File source : manifest.missingFiles()) {
+                subtractSnapshot(snapshots, source);
+                snapshots.delete(source);
+                manifest.remove(source);
+                removed = true;
+            }
+
+            int updated = 0;
+            for (File source : files) {
+                if (!source.isFile() || !manifest.isChanged(source))
+                    continue;
+
+                AnalyzedFile analyzed;
+                try {
+                    analyzed = analyzeFile(source);
+                } catch (JSONException e) {
+                    System.err.format("[Error]Failed to parse json file %s!", source);
+                    e.printStackTrace();
+                    analyzed = null;
+                }
+                if (manifest.contains(source)) {
+                    subtractSnapshot(snapshots, source);
+                    removed = true;
+                }
+                if (analyzed == null) {
+                    // left out as in a full rebuild, and unrecorded so it is read again once it parses
+                    snapshots.delete(source);
+                    manifest.remove(source);
+                    continue;
+                }
+
+                processFile(analyzed, "train", m_stats, m_reviews);
+                snapshots.write(source, analyzed);
+                manifest.record(source);
+                updated++;
+            }
+
+            // terms only the removed reviews had must go, as in a full rebuild
+            if (removed)
+                m_stats = m_stats.compact();
+
+            // a new file rather than the mapped one, which stays valid until the manifest moves on
+            int generation = manifest.getGeneration() + 1;
+            MappedVocabulary.write(m_stats, vocabularyFile(state, generation).getPath());
+            manifest.setGeneration(generation);
+            manifest.setPending(false);
+            manifest.save(manifestFile);
+            deleteOldVocabularies(state, generation);
+            System.out.format("Updated %d files from %s, dictionary of %d N-grams over %d reviews\n", updated, folder, m_stats.size(), m_stats.getNumDocs());
+        } catch (IOException e) {
+            System.err.format("[Error]Failed to update the dictionary in %s!", stateDir);
+            e.printStackTrace();
+        }
+    }
+
+    static File vocabularyFile(File state, int generation) {
+        return new File(state, "vocabulary." + generation + ".bin");
+    }
+
+    // earlier generations; one still mapped where that blocks deletion goes with a later update
+    static void deleteOldVocabularies(File state, int generation) {
+        String current = vocabularyFile(state, generation).getName();
+        for (File f : state.listFiles()) {
+            if (f.getName().startsWith("vocabulary.") && f.getName().endsWith(".bin") && !f.getName().equals(current))
+                f.delete();
+        }
+    }
+
+    void subtractSnapshot(CorpusCache snapshots, File source) throws IOException {
+        AnalyzedFile snapshot = snapshots.read(source, false);
+        if (snapshot == null)
+            throw new IOException("No analysis kept for " + source + ", rebuild the dictionary");
+
+        Vocabulary old = new Vocabulary();
+        processFile(snapshot, "train", old, new ArrayList<>());
+        m_stats.subtract(old);
+    }
+
+    // what the counts depend on besides the files: N-gram range, language settings and stopwords
+    String settings() {
+        String settings = "N=" + m_ngrams.getMinN() + "-" + m_ngrams.getMaxN() + " language=" + analysis();
+        for (Map.Entry<Language, HashSet<String>> entry : m_stopwords.entrySet()) {
+            ArrayList<String> stopwords = new ArrayList<>(entry.getValue());
+            Collections.sort(stopwords);
+            if (!stopwords.isEmpty())
+                settings += " stopwords." + entry.getKey().name().toLowerCase() + "=" + stopwords.size() + ":" + Integer.toHexString(stopwords.hashCode());
+        }
+        return settings;
+    }
+
+    // what the analyzed tokens depend on: the language, and with detection the profiles choosing it
+    String analysis() {
+        return m_detector == null ? m_language.name() : m_language.name() + "+detect:" + m_detector.getFingerprint();
+    }
+
+    // collect matching files in the same order as the recursive serial walk
+    void listFiles(File dir, String suffix, ArrayList<File> files) {
+        for (File f : dir.listFiles()) {
+            if (f.isFile() && f.getName().endsWith(suffix))
+                files.add(f);
+            else if (f.isDirectory())
+                listFiles(f, suffix, files);
+        }
+    }
+
     // tokenize a string
-    String[] tokenize(String text) {
-        return m_tokenizer.tokenize(text);
+    public String[] tokenize(String text) {
+        return m_tokenizer.get().tokenize(text);
     }
 
     // stem a token
 	public String snowballStemming(String token) {
-		SnowballStemmer stemmer = new englishStemmer();
-		stemmer.setCurrent(token);
-		if (stemmer.stem())
-			return stemmer.getCurrent();
-		else
-			return token;
+		return stem(m_language, token);
+	}
+
+	String stem(Language language, String token) {
+		return m_stemCaches.get(language).stem(token);
 	}
 
 	// normalize a token
 	public String normalize(String token) {
 
         //remove all non-word characters, English punctuation; replace integers, doubles with "NUM"
-		return token.replaceAll("\\W+", "")
-                .replaceAll("\\p{P}","")
-                .toLowerCase()
-                .replaceAll("(\\d+(?:\\.\\d+)?)","NUM");
+		return m_language.normalize(token);
 	}
 
 	// training
     public void analyzeDocument(JSONObject json) {
+        analyzeDocument(json, m_stats, m_reviews);
+    }
+
+    void analyzeDocument(JSONObject json, Vocabulary stats, ArrayList<Post> reviews) {
         try {
             JSONArray jarray = json.getJSONArray("Reviews");
 
             for(int i=0; i<jarray.length(); i++) {
                 Post review = new Post(jarray.getJSONObject(i));
-
-                String[] tokens = tokenize(review.getContent());
-                ArrayList<String> reviewTokens = new ArrayList<>();
-
-                tokens[0] = snowballStemming(normalize(tokens[0])).trim();
-
-                for (int j=1; j<tokens.length-1; j++) {
-                    //normalizing and stemming
-                    tokens[j] = snowballStemming(normalize(tokens[j])).trim();
-
-                    //create valid unigrams
-                    if(!m_stopwords.contains(tokens[j]) && tokens[j].length()>0) {
-                        String key = tokens[j];
-                        reviewTokens.add(key);
-                        checkDict(key, review.getID());
-
-                        //create valid bigrams
-                        if(!m_stopwords.contains(tokens[j-1]) && tokens[j-1].length()>0) {
-                            key = tokens[j-1] + "-" + tokens[j];
-                            checkDict(key, review.getID());
-                        }
-                    }
-                }
-
-                review.setTokens(reviewTokens.toArray(new String[reviewTokens.size()]));
-                m_reviews.add(review);
+                Language language = languageOf(review.getContent());
+                analyzeReview(review, analyzeTokens(review.getContent(), language), language, stats, reviews);
             }
         } catch (JSONException e) {
             e.printStackTrace();
         }
     }
 
-    public void checkDict(String key, String id) {
-        Token token = m_stats.get(key);
+    void analyzeReview(Post review, String[] tokens, Language language, Vocabulary stats, ArrayList<Post> reviews) {
+        ArrayList<String> reviewTokens = new ArrayList<>();
+        HashSet<String> stopwords = m_stopwords.get(language);
+        int[] words = encodeWords(tokens, token -> isValid(token, stopwords) ? stats.addWord(token) : -1);
 
-        if(token==null) {
-            token = new Token(key, id);
-            token.setVal1(1);
-            token.setVal2(1);
-            m_stats.put(key,token);
-        }
-        else {
-            token.setVal1(token.getVal1()+1);
-            if(!token.getID().equals(id)){
-                token.setVal2(token.getVal2()+1);
-                token.setID(id);
-            }
+        for (int j=1; j<tokens.length-1; j++) {
+            if(words[j] >= 0)
+                reviewTokens.add(tokens[j]);
         }
+
+        //create valid N-grams; the first token only opens N-grams and the last one is dropped
+        SeenSet seen = m_seen.get();
+        seen.clear();
+        m_ngrams.extract(words, 1, tokens.length-1, stats, true, id -> stats.count(id, seen.add(id)));
+        stats.addDocument();
+
+        review.setTokens(reviewTokens.toArray(new String[reviewTokens.size()]));
+        reviews.add(review);
     }
 
-    public void sortDictbyTTF() {
-        m_sorted = new ArrayList<>(m_stats.entrySet());
-        Collections.sort(m_sorted, (e1, e2) -> Double.compare(e2.getValue().getVal1(), e1.getValue().getVal1()));
+    // a token counts towards the dictionary unless it is empty or a stopword
+    boolean isValid(String token, HashSet<String> stopwords) {
+        return !stopwords.contains(token) && token.length()>0;
     }
 
-    public void sortDictbyDF() {
-        m_sorted = new ArrayList<>(m_stats.entrySet());
-        Collections.sort(m_sorted, (e1, e2) -> Double.compare(e2.getValue().getVal2(), e1.getValue().getVal2()));
+    // tokenize a review, normalizing and stemming every token but the last one, which never forms N-grams
+    String[] analyzeTokens(String content, Language language) {
+        StemCache stems = m_stemCaches.get(language);
+        String[] tokens = tokenize(content);
+        for (int j=0; j<tokens.length-1; j++)
+            tokens[j] = stems.stem(language.normalize(tokens[j])).trim();
+        return tokens;
     }
 
-    public void exportCSV(String csv_path, String stat){
+    // map analyzed tokens to word IDs (-1 for tokens that cannot form N-grams)
+    int[] encodeWords(String[] tokens, ToIntFunction<String> encoder) {
+        int[] words = new int[tokens.length];
+        for (int j=0; j<tokens.length-1; j++)
+            words[j] = encoder.applyAsInt(tokens[j]);
+        if (tokens.length > 0)
+            words[tokens.length-1] = -1;
+        return words;
+    }
 
-	    FileWriter writer = null;
+    // count an N-gram of the review whose N-grams seen holds
+    public void checkDict(String key, SeenSet seen) {
+        checkDict(m_stats, key, seen);
+    }
 
-        try {
-            writer = new FileWriter(csv_path + stat + "_results.csv");
+    void checkDict(Vocabulary stats, String key, SeenSet seen) {
+        int id = stats.add(key);
+        stats.count(id, seen.add(id));
+    }
 
-            if (stat.equals("ttf")) {
-                writer.write("Token,Rank,TTF\n");
+    public void sortDictbyTTF() {
+        m_sorted = sortIDs(m_stats::getTTF);
+    }
 
-                for (int i = 0; i < m_stats.size(); i++) {
-                    writer.write(m_sorted.get(i).getKey() + "," + (i + 1) + "," + m_sorted.get(i).getValue().getVal1() + "\n");
-                }
-            }
+    public void sortDictbyDF() {
+        m_sorted = sortIDs(m_stats::getDF);
+    }
 
-            if (stat.equals("df")) {
-                writer.write("Token,Rank,DF\n");
+    // IDs of all tokens ordered by a statistic, highest first
+    int[] sortIDs(IntToLongFunction stat) {
+        return TermSelection.rank(m_stats.size(), stat);
+    }
 
-                for (int i = 0; i < m_stats.size(); i++) {
-                    writer.write(m_sorted.get(i).getKey() + "," + (i + 1) + "," + m_sorted.get(i).getValue().getVal2() + "\n");
-                }
-            }
+    // the k most frequent tokens, without ranking the whole dictionary
+    public int[] topByTTF(int k) {
+        return TermSelection.top(m_stats.size(), m_stats::getTTF, k);
+    }
 
-            writer.flush();
-            writer.close();
-        }
-        catch(IOException e) {
+    public int[] topByDF(int k) {
+        return TermSelection.top(m_stats.size(), m_stats::getDF, k);
+    }
+
+    public void exportCSV(String csv_path, String stat){
+        exportTable(csv_path + stat + "_results.csv", stat);
+    }
+
+    // stream the tokens in m_sorted order with any of the "ttf", "df" and "idf" columns; gzip for a ".gz" file name
+    public void exportTable(String filename, String... columns) {
+        try (CsvExporter exporter = new CsvExporter(filename)) {
+            exporter.writeRanking(m_stats, m_sorted, columns);
+        } catch (IOException e) {
+            System.err.format("[Error]Failed to write %s!", filename);
             e.printStackTrace();
         }
-        finally {
-            if(writer != null) {
-                try {
-                    writer.close();
-                }
-                catch(IOException e) {
-                    e.printStackTrace();
-                }
-            }
-        }
     }
 
     public void removeLowDF() {
+        buildControlledVocabulary(50, 1.0, Integer.MAX_VALUE, null);
+    }
 
-	    int minDF = 50;
-	    int i = m_stats.size()-1;
-	    // System.out.println("Original dictionary size: " + (i+1));
-
-	    while(m_sorted.get(i).getValue().getVal2() < minDF) {
-	        m_stats.remove(m_sorted.get(i).getKey());
-	        m_sorted.remove(i);
-	        i--;
-        }
-
-        // System.out.println("New controlled dictionary size: " + (i+1));
+    // prune the dictionary to the terms with minDF <= DF <= maxDFRatio * N, at most maxSize of the highest DF;
+    // the controlled dictionary is renumbered so that ID == DF rank, and written for loadVocabulary unless filename is null
+    public void buildControlledVocabulary(int minDF, double maxDFRatio, int maxSize, String filename) {
+        VocabularyBuilder builder = new VocabularyBuilder(minDF, maxDFRatio, maxSize);
+        // System.out.println("Original dictionary size: " + m_stats.size());
+        m_stats = builder.build(m_stats);
+        m_sorted = new int[m_stats.size()];
+        for (int j = 0; j < m_sorted.length; j++)
+            m_sorted[j] = j;
+        // System.out.println("New controlled dictionary size: " + m_stats.size());
+
+        if (filename != null)
+            saveVocabulary(filename);
     }
 
     public void printIDFs() {
-	    int size = m_sorted.size();
-	    int numIDFs = 50;
+        printIDFs(50);
+    }
+
+    // IDF of the numIDFs tokens with the highest and with the lowest DF
+    public void printIDFs(int numIDFs) {
+	    int size = m_sorted.length;
+	    numIDFs = Math.min(numIDFs, size);
 	    double idf;
 	    double df;
-        double n = (double)m_reviews.size();
+        double n = (double)m_stats.getNumDocs();     // also counts reviews of earlier incremental runs
 
 	    System.out.println("Top " + numIDFs + " N-grams by DF: ");
 	    for(int i = 0; i < numIDFs; i++) {
-            df = m_sorted.get(i).getValue().getVal2();
+            df = m_stats.getDF(m_sorted[i]);
 	        idf = 1 + Math.log(n/df);
-	        System.out.println(m_sorted.get(i).getKey() + "," + idf);
+	        System.out.println(m_stats.getTerm(m_sorted[i]) + "," + idf);
         }
 
         System.out.println("");
-        System.out.println("Bottom 50 N-grams by DF: ");
+        System.out.println("Bottom " + numIDFs + " N-grams by DF: ");
 
         for(int i = size-1; i > size-numIDFs-1; i--) {
-            df = m_sorted.get(i).getValue().getVal2();
+            df = m_stats.getDF(m_sorted[i]);
             idf = 1 + Math.log(n/df);
-            System.out.println(m_sorted.get(i).getKey() + "," + idf);
+            System.out.println(m_stats.getTerm(m_sorted[i]) + "," + idf);
         }
     }
 
     public void printControlledDict() {
-	    for (int i=0; i < m_sorted.size(); i++) {
-	        System.out.println(m_sorted.get(i).getKey());
+	    for (int i=0; i < m_sorted.length; i++) {
+	        System.out.println(m_stats.getTerm(m_sorted[i]));
         }
     }
 
+    // write the vocabulary with its TTF, DF and corpus size in the memory-mapped format
+    public void saveVocabulary(String filename) {
+        try {
+            MappedVocabulary.write(m_stats, filename);
+        } catch (IOException e) {
+            System.err.format("[Error]Failed to write vocabulary %s!", filename);
+            e.printStackTrace();
+        }
+    }
+
+    // testing: map a vocabulary written by saveVocabulary, so startup does not depend on its size
+    public void loadVocabulary(String filename) {
+        try {
+            m_lexicon = new MappedVocabulary(filename);
+            System.out.format("Mapped %d N-grams from %s\n", m_lexicon.size(), filename);
+        } catch (IOException e) {
+            System.err.format("[Error]Failed to open vocabulary %s!", filename);
+            e.printStackTrace();
+        }
+    }
+
+    // stem every distinct normalized token of a directory once and write the surface -> stem table
+    public void buildStemTable(String folder, String suffix, String filename) {
+        buildStemTable(folder, suffix, m_language, filename);
+    }
+
+    // with language detection, only the reviews detected as the given language contribute
+    public void buildStemTable(String folder, String suffix, Language language, String filename) {
+        ArrayList<File> files = new ArrayList<>();
+        listFiles(new File(folder), suffix, files);
+
+        HashSet<String> forms = new HashSet<>();
+        try {
+            for (File f : files) {
+                try (ReviewReader reader = new ReviewReader(f.getAbsolutePath())) {
+                    while (reader.hasNext()) {
+                        String content = reader.next().getContent();
+                        if (languageOf(content) != language)
+                            continue;
+                        // as in analyzeTokens, the last token is never stemmed
+                        String[] tokens = tokenize(content);
+                        for (int j=0; j<tokens.length-1; j++)
+                            forms.add(language.normalize(tokens[j]));
+                    }
+                }
+            }
+            StemTable.write(language, forms, filename);
+            System.out.format("Stemmed %d distinct forms from %s into %s\n", forms.size(), folder, filename);
+        } catch (IOException e) {
+            System.err.format("[Error]Failed to write stem table %s!", filename);
+            e.printStackTrace();
+        } catch (JSONException | ReviewReader.MalformedReviewsException e) {
+            // no table rather than one missing the forms of the rest of a file
+            System.err.format("[Error]Failed to parse json files in %s!", folder);
+            e.printStackTrace();
+        }
+    }
+
+    // testing: map a stem table written by buildStemTable; the stemmer of its language only runs for forms it lacks
+    public void loadStemTable(String filename) {
+        try {
+            StemTable table = new StemTable(filename);
+            m_stemTables.put(table.getLanguage(), table);
+            m_stemCaches.put(table.getLanguage(), newStemCache(table.getLanguage()));
+            prepare(table.getLanguage());
+            System.out.format("Mapped %d stems from %s\n", table.size(), filename);
+        } catch (IOException e) {
+            System.err.format("[Error]Failed to open stem table %s!", filename);
+            e.printStackTrace();
+        }
+    }
+
+    // vocabulary test reviews and queries are encoded against
+    Lexicon lexicon() {
+        return m_lexicon != null ? m_lexicon : m_stats;
+    }
+
     // testing
     public void loadControlledDict(String file_path) {
 	    BufferedReader reader = null;
@@ -285,7 +750,7 @@ public class DocAnalyzer {
 	        reader = new BufferedReader(new FileReader(file_path));
 
 	        while ((line = reader.readLine()) != null) {
-	            m_stats.put(line.trim(), new Token(line.trim()));
+	            m_stats.add(line.trim());
             }
         }
         catch(IOException e) {
@@ -304,43 +769,60 @@ public class DocAnalyzer {
     }
 
     public void encodeTestDocs(JSONObject json, ArrayList<Post> reviews) {
+        encodeDocs(json, reviews, m_index);
+    }
+
+    // encode reviews like queries, without adding them to the index
+    public void encodeQueryDocs(JSONObject json, ArrayList<Post> reviews) {
+        encodeDocs(json, reviews, null);
+    }
+
+    void encodeDocs(JSONObject json, ArrayList<Post> reviews, InvertedIndex index) {
         try {
             JSONArray jarray = json.getJSONArray("Reviews");
 
             for(int i=0; i<jarray.length(); i++) {
                 Post review = new Post(jarray.getJSONObject(i));
-                String[] tokens = tokenize(review.getContent());
-                HashMap<String, Token> vector = new HashMap<>();
-                String key;
-                double count;
-
-                tokens[0] = snowballStemming(normalize(tokens[0])).trim();
-
-                for (int j=1; j<tokens.length-1; j++) {
-                    //normalizing and stemming
-                    tokens[j] = snowballStemming(normalize(tokens[j])).trim();
-
-                    key = tokens[j];
-                    if(m_stats.containsKey(key)) {
-                        Token t = vector.get(key);
-                        vector.put(key, checkVect(key, t, review.getID()));
-                    }
-
-                    key = tokens[j-1] + "-" + tokens[j];
-                    if(m_stats.containsKey(key)) {
-                        Token t = vector.get(key);
-                        vector.put(key, checkVect(key, t, review.getID()));
-                    }
-                }
-
-                review.setVct(vector);
-                reviews.add(review);
+                encodeReview(review, analyzeTokens(review.getContent(), languageOf(review.getContent())), reviews, index);
             }
         } catch (JSONException e) {
             e.printStackTrace();
         }
     }
 
+    // encode a review against the controlled vocabulary, adding it to index unless that is null
+    void encodeReview(Post review, String[] tokens, ArrayList<Post> reviews, InvertedIndex index) {
+        Lexicon lexicon = lexicon();
+        int[] words = encodeWords(tokens, lexicon::getWordID);
+        int[] ids = new int[Math.max(0, tokens.length * m_ngrams.getMaxN())];
+        int[] size = {0};
+
+        m_ngrams.extract(words, 1, tokens.length-1, lexicon, id -> ids[size[0]++] = id);
+
+        // collapse the sorted occurrences into distinct terms with sub-linear TF-IDF weights
+        Arrays.sort(ids, 0, size[0]);
+        double[] weights = new double[size[0]];
+        int n = 0;
+        for (int i = 0; i < size[0]; ) {
+            int j = i;
+            while (j < size[0] && ids[j] == ids[i])
+                j++;
+            ids[n] = ids[i];
+            weights[n++] = getWeight(lexicon, ids[i], j - i);
+            i = j;
+        }
+
+        review.setVct(new SparseVector(ids, weights, n));
+        reviews.add(review);
+        if (index != null)
+            index.addDocument(review);
+    }
+
+    // TF-IDF weight of a term occurring tf times in a review
+    double getWeight(Lexicon lexicon, int id, double tf) {
+        return (1 + Math.log(tf)) * lexicon.getIDF(id);
+    }
+
     public Token checkVect(String key, Token t, String id) {
 
         if(t == null) {
@@ -358,15 +840,37 @@ public class DocAnalyzer {
 
     public void loadQuery(String file_path) {
         File f = new File(file_path);
-	    JSONObject json = loadJson(f.getAbsolutePath());
         ArrayList<Post> queryReviews = new ArrayList<>();
 
-	    encodeTestDocs(json, queryReviews);
+	    loadReviews(f.getAbsolutePath(), "query", m_stats, queryReviews);
+
+        int k = 3;
+        double[] scores = new double[k];
+        for (Post query : queryReviews) {
+            int[] top = searchSimilar(query, k, scores);
+            System.out.println("Query " + query.getID() + ":");
+            for (int i = 0; i < top.length; i++)
+                System.out.format("  %d. %s (%.4f)\n", i + 1, m_index.getDocument(top[i]).getID(), scores[i]);
+        }
+    }
+
+    // the k indexed test reviews most similar to a query, best first, with their cosine scores
+    public int[] searchSimilar(Post query, int k, double[] scores) {
+        return m_index.search(query.getVct(), k, scores);
+    }
+
+    // score every query against every indexed test review in one batch, keeping the k best per query;
+    // the returned IDs are document IDs of m_index
+    public int[][] rankAllPairs(ArrayList<Post> queries, int k, int threads, double[][] scores) {
+        ArrayList<SparseVector> rows = new ArrayList<>();
+        for (Post query : queries)
+            rows.add(query.getVct());
 
-	    // TODO: best time to calculate cosine similarity
-        // TODO: best way to find 3 most similar test docs to each query doc
-        // TODO: clean up code
+        ArrayList<SparseVector> docs = new ArrayList<>();
+        for (int i = 0; i < m_index.numDocs(); i++)
+            docs.add(m_index.getDocument(i).getVct());
 
+        return new BatchSimilarity(threads).topK(new CsrMatrix(rows), new CsrMatrix(docs), k, scores);
     }
 
     public static void main(String[] args) throws InvalidFormatException, FileNotFoundException, IOException {
@@ -380,25 +884,37 @@ public class DocAnalyzer {
         String query_path = args[6];        // TODO: add to IDE command line args
 
 		DocAnalyzer analyzer = new DocAnalyzer(tokenizer_path,2);
+//        analyzer.setCacheDirectory("cache");     // reuse analyzed reviews across runs
 
         /* 1.1 Understand Zipf's Law */
 //        analyzer.loadStopwords(stopwords_path);
-//        analyzer.loadDirectory(data_path, data_type, "train");   // calls analyzeDocument
+//        analyzer.loadStopwords(Language.GERMAN, "german_stopwords.txt");    // for multi-lingual feeds,
+//        analyzer.enableLanguageDetection();                                 // with one stopword list per language
+//        analyzer.loadDirectory(data_path, data_type, "train", Runtime.getRuntime().availableProcessors());   // calls analyzeDocument
 //        analyzer.sortDictbyTTF();
 //        analyzer.exportCSV(file_path, "ttf");
 
         /* 1.2 Construct a Controlled Vocabulary */
 //        analyzer.loadStopwords(stopwords_path);
-//        analyzer.loadDirectory(data_path, data_type, "train");   // calls analyzeDocument
+//        analyzer.loadDirectory(data_path, data_type, "train", Runtime.getRuntime().availableProcessors());   // calls analyzeDocument
+//        analyzer.updateDirectory(data_path, data_type, "state");    // or only add new dumps to the persisted counts
 //        analyzer.sortDictbyDF();
 //        analyzer.exportCSV(file_path,"df");
-//        analyzer.removeLowDF();
+//        analyzer.removeLowDF();     // or e.g. buildControlledVocabulary(50, 0.5, 100000, "controlled_dict.bin")
 //        analyzer.printIDFs();
 //        analyzer.printControlledDict();
+//        analyzer.saveVocabulary("controlled_dict.bin");
+//        analyzer.buildStemTable(data_path, data_type, "stems.bin");
 
         /* 1.3 Compute similarity between documents */
-        analyzer.loadControlledDict("controlled_dict.txt");
+        if (new File("controlled_dict.bin").exists())
+            analyzer.loadVocabulary("controlled_dict.bin");
+        else
+            analyzer.loadControlledDict("controlled_dict.txt");
+        if (new File("stems.bin").exists())
+            analyzer.loadStemTable("stems.bin");    // stems of the training forms, the stemmer only runs for new ones
         analyzer.loadDirectory(test_path, data_type,"test");    //calls encodeTestDocs
+        analyzer.getStemCache().printStats();
         analyzer.loadQuery(query_path);
 
 	}
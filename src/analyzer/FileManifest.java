@@ -0,0 +1,171 @@
+/**
+ *
+ */
+package analyzer;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Source files already counted into a persisted dictionary, with their length, modification
+ * time and SHA-256 content hash, plus the analysis settings the counts were made with and the
+ * generation of the vocabulary file holding them. The content is only hashed again when the
+ * length or modification time changed. A pending manifest was saved by an update that had not
+ * finished, so the state next to it may be ahead of what it records.
+ *
+ * Stored as text: a "#settings" line, a "#generation" line, a "#pending" line while an update runs,
+ * then one "hash length modified path" line per file.
+ */
+public class FileManifest {
+
+    static class Record {
+        String m_hash;
+        long m_length;
+        long m_modified;
+
+        Record(String hash, long length, long modified) {
+            m_hash = hash;
+            m_length = length;
+            m_modified = modified;
+        }
+    }
+
+    String m_settings;                      // stopwords and N-gram range the counts depend on
+    int m_generation;                       // vocabulary file the counts are in, 0 if none
+    boolean m_pending;                      // saved at the start of an update that has not finished
+    LinkedHashMap<String, Record> m_files;  // absolute path -> record
+
+    public FileManifest(String settings) {
+        m_settings = settings;
+        m_generation = 0;
+        m_pending = false;
+        m_files = new LinkedHashMap<>();
+    }
+
+    // the manifest in a file, or an empty one if the file does not exist
+    public static FileManifest load(File file) throws IOException {
+        FileManifest manifest = new FileManifest("");
+        if (!file.isFile())
+            return manifest;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#settings "))
+                    manifest.m_settings = line.substring("#settings ".length());
+                else if (line.startsWith("#generation "))
+                    manifest.m_generation = Integer.parseInt(line.substring("#generation ".length()));
+                else if (line.equals("#pending"))
+                    manifest.m_pending = true;
+                else if (!line.isEmpty()) {
+                    String[] fields = line.split(" ", 4);
+                    if (fields.length < 4)
+                        throw new IOException("Malformed manifest line: " + line);
+                    manifest.m_files.put(fields[3], new Record(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+                }
+            }
+        }
+        return manifest;
+    }
+
+    public void save(File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temp), "UTF-8"))) {
+            writer.write("#settings " + m_settings + "\n");
+            writer.write("#generation " + m_generation + "\n");
+            if (m_pending)
+                writer.write("#pending\n");
+            for (Map.Entry<String, Record> path : m_files.entrySet()) {
+                Record record = path.getValue();
+                writer.write(record.m_hash + " " + record.m_length + " " + record.m_modified + " " + path.getKey() + "\n");
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public String getSettings() {
+        return m_settings;
+    }
+
+    public int getGeneration() {
+        return m_generation;
+    }
+
+    public void setGeneration(int generation) {
+        m_generation = generation;
+    }
+
+    public boolean isPending() {
+        return m_pending;
+    }
+
+    public void setPending(boolean pending) {
+        m_pending = pending;
+    }
+
+    public boolean contains(File source) {
+        return m_files.containsKey(source.getAbsolutePath());
+    }
+
+    // whether the content of a file differs from the recorded one; unrecorded files count as changed
+    public boolean isChanged(File source) throws IOException {
+        Record record = m_files.get(source.getAbsolutePath());
+        if (record == null)
+            return true;
+        if (record.m_length == source.length() && record.m_modified == source.lastModified())
+            return false;
+
+        // touched or rewritten: only a different content counts
+        if (!record.m_hash.equals(hash(source)))
+            return true;
+        record.m_length = source.length();
+        record.m_modified = source.lastModified();
+        return false;
+    }
+
+    public void record(File source) throws IOException {
+        m_files.put(source.getAbsolutePath(), new Record(hash(source), source.length(), source.lastModified()));
+    }
+
+    public void remove(File source) {
+        m_files.remove(source.getAbsolutePath());
+    }
+
+    // recorded files that no longer exist
+    public ArrayList<File> missingFiles() {
+        ArrayList<File> missing = new ArrayList<>();
+        for (String path : m_files.keySet()) {
+            File file = new File(path);
+            if (!file.isFile())
+                missing.add(file);
+        }
+        return missing;
+    }
+
+    static String hash(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = new FileInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0)
+                digest.update(buffer, 0, n);
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest())
+            hex.append(String.format("%02x", b));
+        return hex.toString();
+    }
+}
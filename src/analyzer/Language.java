@@ -0,0 +1,63 @@
+/**
+ *
+ */
+package analyzer;
+
+import java.util.function.Supplier;
+
+import org.tartarus.snowball.SnowballStemmer;
+import org.tartarus.snowball.ext.*;
+
+/**
+ * Languages reviews can be analyzed in, each with the factory of its Snowball stemmer, so
+ * stemmers are created directly instead of looked up by class name.
+ * The ordinals are stored in analysis caches: add new languages at the end.
+ */
+public enum Language {
+    DANISH("da", danishStemmer::new),
+    DUTCH("nl", dutchStemmer::new),
+    ENGLISH("en", englishStemmer::new),
+    FINNISH("fi", finnishStemmer::new),
+    FRENCH("fr", frenchStemmer::new),
+    GERMAN("de", germanStemmer::new),
+    HUNGARIAN("hu", hungarianStemmer::new),
+    ITALIAN("it", italianStemmer::new),
+    NORWEGIAN("no", norwegianStemmer::new),
+    PORTER("en", porterStemmer::new),       // English with the original Porter algorithm
+    PORTUGUESE("pt", portugueseStemmer::new),
+    ROMANIAN("ro", romanianStemmer::new),
+    RUSSIAN("ru", russianStemmer::new),
+    SPANISH("es", spanishStemmer::new),
+    SWEDISH("sv", swedishStemmer::new),
+    TURKISH("tr", turkishStemmer::new);
+
+    final String m_code;                        // ISO 639-1
+    final Supplier<SnowballStemmer> m_stemmer;
+
+    Language(String code, Supplier<SnowballStemmer> stemmer) {
+        m_code = code;
+        m_stemmer = stemmer;
+    }
+
+    public String getCode() {
+        return m_code;
+    }
+
+    public SnowballStemmer newStemmer() {
+        return m_stemmer.get();
+    }
+
+    // English keeps the original ASCII-only normalization; the others keep letters of any script
+    public String normalize(String token) {
+        return this == ENGLISH || this == PORTER ? Normalizer.normalize(token) : Normalizer.normalizeLetters(token);
+    }
+
+    // a language by name or ISO 639-1 code, e.g. "german" or "de"
+    public static Language forName(String name) {
+        for (Language language : values()) {
+            if (language.name().equalsIgnoreCase(name) || language.m_code.equalsIgnoreCase(name))
+                return language;
+        }
+        throw new IllegalArgumentException("Unknown language " + name);
+    }
+}
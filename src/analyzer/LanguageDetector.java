@@ -0,0 +1,120 @@
+/**
+ *
+ */
+package analyzer;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import structures.LongIntMap;
+
+/**
+ * Naive Bayes language classifier over character trigrams.
+ * Each language is profiled from sample text, e.g. its stopword list: the text is lowercased,
+ * every run of non-letters becomes one space, and add-one smoothed trigram probabilities are
+ * kept in one table with a row per trigram. A document is scored on its first MAX_CHARS
+ * characters only, which is plenty to tell languages apart.
+ */
+public class LanguageDetector {
+
+    static final int MAX_CHARS = 1024;
+
+    Language[] m_languages;         // languages with a profile
+    LongIntMap m_rows;              // packed trigram -> row of m_logProbs
+    float[] m_logProbs;             // row * languages + language -> log P(trigram | language)
+    float[] m_unseen;               // language -> log P of a trigram missing from its profile
+    int m_fingerprint;              // changes with the samples, so analyses made with other profiles can be told apart
+
+    public LanguageDetector(Map<Language, ? extends CharSequence> samples) {
+        m_languages = samples.keySet().toArray(new Language[0]);
+        m_rows = new LongIntMap();
+        ArrayList<int[]> counts = new ArrayList<>();
+        long[] totals = new long[m_languages.length];
+        m_fingerprint = 0;
+
+        for (int l = 0; l < m_languages.length; l++) {
+            CharSequence sample = samples.get(m_languages[l]);
+            m_fingerprint = 31 * (31 * m_fingerprint + m_languages[l].ordinal()) + sample.toString().hashCode();
+
+            long trigram = ' ';
+            char last = ' ';
+            for (int i = 0; i <= sample.length(); i++) {
+                char c = i < sample.length() ? fold(sample.charAt(i)) : ' ';
+                if (c == ' ' && last == ' ')
+                    continue;
+                trigram = (trigram << 16 | c) & 0xFFFFFFFFFFFFL;
+                last = c;
+                if (trigram >>> 32 == 0)
+                    continue;   // fewer than three characters so far
+
+                int row = m_rows.get(trigram);
+                if (row < 0) {
+                    row = counts.size();
+                    m_rows.put(trigram, row);
+                    counts.add(new int[m_languages.length]);
+                }
+                counts.get(row)[l]++;
+                totals[l]++;
+            }
+        }
+
+        m_logProbs = new float[counts.size() * m_languages.length];
+        m_unseen = new float[m_languages.length];
+        for (int l = 0; l < m_languages.length; l++) {
+            double denominator = totals[l] + counts.size();
+            m_unseen[l] = (float) Math.log(1 / denominator);
+            for (int row = 0; row < counts.size(); row++)
+                m_logProbs[row * m_languages.length + l] = (float) Math.log((counts.get(row)[l] + 1) / denominator);
+        }
+    }
+
+    // lowercase letters, a space for anything else
+    static char fold(char c) {
+        return Character.isLetter(c) ? Character.toLowerCase(c) : ' ';
+    }
+
+    // the most likely language of a text, or null if it has no letters
+    public Language detect(CharSequence text) {
+        double[] scores = new double[m_languages.length];
+        int end = Math.min(text.length(), MAX_CHARS), seen = 0;
+        long trigram = ' ';
+        char last = ' ';
+        for (int i = 0; i <= end; i++) {
+            char c = i < end ? fold(text.charAt(i)) : ' ';
+            if (c == ' ' && last == ' ')
+                continue;
+            trigram = (trigram << 16 | c) & 0xFFFFFFFFFFFFL;
+            last = c;
+            if (trigram >>> 32 == 0)
+                continue;
+
+            int row = m_rows.get(trigram);
+            if (row < 0) {
+                for (int l = 0; l < scores.length; l++)
+                    scores[l] += m_unseen[l];
+            } else {
+                int offset = row * m_languages.length;
+                for (int l = 0; l < scores.length; l++)
+                    scores[l] += m_logProbs[offset + l];
+            }
+            seen++;
+        }
+        if (seen == 0 || m_languages.length == 0)
+            return null;
+
+        int best = 0;
+        for (int l = 1; l < scores.length; l++) {
+            if (scores[l] > scores[best])
+                best = l;
+        }
+        return m_languages[best];
+    }
+
+    public Language[] getLanguages() {
+        return m_languages.clone();
+    }
+
+    public String getFingerprint() {
+        return Integer.toHexString(m_fingerprint);
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ *
+ */
+package analyzer;
+
+import java.util.function.IntConsumer;
+
+import structures.Lexicon;
+import structures.Vocabulary;
+
+/**
+ * Enumerates the N-grams of a review as vocabulary term IDs.
+ * A review is a window of word IDs, with -1 for tokens that cannot be part of an N-gram
+ * (stopwords, empty tokens, or words missing from a fixed vocabulary). At every position the
+ * N-grams ending there are visited shortest first while their hash is extended one word to the
+ * left, so no N-gram ever needs a String.
+ */
+public class NGramExtractor {
+
+    int m_minN;     // shortest N-gram to emit
+    int m_maxN;     // longest N-gram to emit
+
+    public NGramExtractor(int minN, int maxN) {
+        if (minN < 1 || maxN < minN)
+            throw new IllegalArgumentException("Invalid N-gram range [" + minN + ", " + maxN + "]");
+        m_minN = minN;
+        m_maxN = maxN;
+    }
+
+    public int getMinN() {
+        return m_minN;
+    }
+
+    public int getMaxN() {
+        return m_maxN;
+    }
+
+    // term ID of the N-gram words[off..off+n) with the given hash, or -1 to skip it
+    interface TermLookup {
+        int id(int[] words, int off, int n, long hash);
+    }
+
+    // emit the term ID of every N-gram ending in [from, to); words before from can only open an N-gram.
+    // With grow the N-grams are added to vocab, otherwise the ones missing from it are skipped.
+    public void extract(int[] words, int from, int to, Vocabulary vocab, boolean grow, IntConsumer sink) {
+        if (grow)
+            extract(words, from, to, vocab::add, sink);
+        else
+            extract(words, from, to, vocab::getID, sink);
+    }
+
+    // same over a read-only vocabulary: N-grams missing from it are skipped
+    public void extract(int[] words, int from, int to, Lexicon vocab, IntConsumer sink) {
+        extract(words, from, to, vocab::getID, sink);
+    }
+
+    void extract(int[] words, int from, int to, TermLookup lookup, IntConsumer sink) {
+        int run = 0;    // number of valid words ending at the current position
+        for (int j = 0; j < from && j < words.length; j++)
+            run = words[j] < 0 ? 0 : run + 1;
+
+        for (int j = from; j < to; j++) {
+            if (words[j] < 0) {
+                run = 0;
+                continue;
+            }
+            run++;
+
+            long hash = 0;
+            int longest = Math.min(run, m_maxN);
+            for (int n = 1; n <= longest; n++) {
+                hash = Vocabulary.extendHash(hash, words[j - n + 1]);
+                if (n < m_minN)
+                    continue;
+
+                int id = lookup.id(words, j - n + 1, n, hash);
+                if (id >= 0)
+                    sink.accept(id);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ *
+ */
+package analyzer;
+
+import java.util.regex.Pattern;
+
+/**
+ * Single-pass token normalizer.
+ * Produces the same output as the original regex chain: drop non-word characters and punctuation,
+ * lowercase, and replace every number with "NUM".
+ */
+public class Normalizer {
+
+    static final Pattern NON_WORD = Pattern.compile("\\W+");
+    static final Pattern PUNCTUATION = Pattern.compile("\\p{P}");
+    static final Pattern NUMBER = Pattern.compile("(\\d+(?:\\.\\d+)?)");
+
+    // reusable output buffer for each worker thread
+    static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(64));
+
+    // normalize a token in one pass over its characters
+    public static String normalize(String token) {
+        int len = token.length();
+
+        // most tokens are plain lowercase words and come back unchanged
+        int i = 0;
+        while (i < len) {
+            char c = token.charAt(i);
+            if (c < 'a' || c > 'z')
+                break;
+            i++;
+        }
+        if (i == len)
+            return token;
+
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        buffer.append(token, 0, i);
+
+        // \W and \p{P} leave exactly [A-Za-z0-9]; a number only ends at the next kept letter
+        // because the characters between its digits have already been removed
+        boolean inNumber = false;
+        for (; i < len; i++) {
+            char c = token.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                buffer.append(c);
+                inNumber = false;
+            } else if (c >= 'A' && c <= 'Z') {
+                buffer.append((char) (c + ('a' - 'A')));
+                inNumber = false;
+            } else if (c >= '0' && c <= '9') {
+                if (!inNumber)
+                    buffer.append("NUM");
+                inNumber = true;
+            }
+        }
+        return buffer.toString();
+    }
+
+    // like normalize, but keeping the letters and marks of every script, e.g. for German or Russian reviews
+    public static String normalizeLetters(String token) {
+        int len = token.length();
+        int i = 0;
+        while (i < len) {
+            char c = token.charAt(i);
+            if (c < 'a' || c > 'z')
+                break;
+            i++;
+        }
+        if (i == len)
+            return token;
+
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        buffer.append(token, 0, i);
+
+        boolean inNumber = false;
+        while (i < len) {
+            int c = token.codePointAt(i);
+            i += Character.charCount(c);
+            if (c >= '0' && c <= '9') {
+                if (!inNumber)
+                    buffer.append("NUM");
+                inNumber = true;
+            } else if (Character.isLetter(c)) {
+                buffer.appendCodePoint(Character.toLowerCase(c));
+                inNumber = false;
+            } else if (Character.getType(c) == Character.NON_SPACING_MARK || Character.getType(c) == Character.COMBINING_SPACING_MARK) {
+                buffer.appendCodePoint(c);
+                inNumber = false;
+            }
+        }
+        return buffer.toString();
+    }
+
+    // the original regex chain, kept as the reference for differential checks and benchmarks
+    public static String normalizeRegex(String token) {
+        String result = NON_WORD.matcher(token).replaceAll("");
+        result = PUNCTUATION.matcher(result).replaceAll("");
+        return NUMBER.matcher(result.toLowerCase()).replaceAll("NUM");
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ *
+ */
+package analyzer;
+
+import java.io.*;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import json.JSONException;
+import json.JSONObject;
+import json.JSONTokener;
+import structures.Post;
+
+/**
+ * Streams the "Reviews" array of a Yelp business file one Post at a time.
+ * Only the review being returned is materialized, the rest of the file is never held in memory.
+ * A syntax error after the first review surfaces from next() as a MalformedReviewsException,
+ * so callers can tell a file that was read to the end from one that was cut short.
+ */
+public class ReviewReader implements Iterator<Post>, Closeable {
+
+    String m_filename;
+    Reader m_reader;
+    JSONTokener m_tokener;
+    boolean m_inReviews;    // positioned inside the "Reviews" array
+    Post m_next;            // next review to hand out, null at the end of the file
+
+    // unchecked so the Iterator interface can throw it; the cause is the JSONException
+    public static class MalformedReviewsException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        MalformedReviewsException(String filename, JSONException cause) {
+            super("Failed to parse json file " + filename, cause);
+        }
+
+        @Override
+        public synchronized JSONException getCause() {
+            return (JSONException) super.getCause();
+        }
+    }
+
+    public ReviewReader(String filename) throws IOException, JSONException {
+        m_filename = filename;
+        m_reader = new BufferedReader(new InputStreamReader(new FileInputStream(filename), "UTF-8"));
+        m_tokener = new JSONTokener(m_reader);
+        m_inReviews = false;
+
+        try {
+            if (m_tokener.nextClean() != '{')
+                throw m_tokener.syntaxError("A JSONObject text must begin with '{'");
+            m_next = advance();
+        } catch (JSONException e) {
+            close();
+            throw e;
+        }
+    }
+
+    // parse up to the next review object, or return null once the top-level object ends
+    Post advance() throws JSONException {
+        for (;;) {
+            char c = m_tokener.nextClean();
+            if (c == ',')
+                c = m_tokener.nextClean();
+
+            if (m_inReviews) {
+                if (c == ']') {
+                    m_inReviews = false;
+                    continue;
+                }
+                m_tokener.back();
+                Object value = m_tokener.nextValue();
+                if (!(value instanceof JSONObject))
+                    throw m_tokener.syntaxError("Expected a review object");
+                return new Post((JSONObject) value);
+            }
+
+            if (c == '}' || c == 0)
+                return null;
+
+            // top-level member; anything other than the reviews is parsed and dropped
+            m_tokener.back();
+            String key = m_tokener.nextValue().toString();
+            if (m_tokener.nextClean() != ':')
+                throw m_tokener.syntaxError("Expected a ':' after a key");
+
+            if (key.equals("Reviews")) {
+                if (m_tokener.nextClean() != '[')
+                    throw m_tokener.syntaxError("Expected a '[' after \"Reviews\"");
+                m_inReviews = true;
+            }
+            else
+                m_tokener.nextValue();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return m_next != null;
+    }
+
+    @Override
+    public Post next() {
+        if (m_next == null)
+            throw new NoSuchElementException();
+
+        Post review = m_next;
+        try {
+            m_next = advance();
+        } catch (JSONException e) {
+            m_next = null;
+            close();
+            throw new MalformedReviewsException(m_filename, e);
+        }
+
+        if (m_next == null)
+            close();
+        return review;
+    }
+
+    @Override
+    public void close() {
+        try {
+            m_reader.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
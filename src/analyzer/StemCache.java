@@ -0,0 +1,139 @@
+/**
+ *
+ */
+package analyzer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of stems keyed on the normalized surface form.
+ * Review text is Zipfian, so a small cache answers most lookups without running the stemmer.
+ * The cache is split into independently locked segments so worker threads rarely contend.
+ * On a miss the stem comes from a precomputed StemTable if there is one, and from the stemmer
+ * only for forms the table does not hold.
+ */
+public class StemCache {
+
+    static final int SEGMENTS = 16;
+
+    StemmerPool m_stemmer;              // computes stems on a miss
+    StemTable m_table;                  // precomputed stems looked up before the stemmer, may be null
+    Segment[] m_segments;               // LRU segments selected by hash
+    int m_capacity;                     // maximum number of cached stems
+
+    LongAdder m_hits;
+    LongAdder m_misses;
+    LongAdder m_evictions;
+    LongAdder m_tableHits;              // misses answered by m_table
+
+    public StemCache(StemmerPool stemmer, int capacity) {
+        this(stemmer, null, capacity);
+    }
+
+    public StemCache(StemmerPool stemmer, StemTable table, int capacity) {
+        m_stemmer = stemmer;
+        m_table = table;
+        m_capacity = capacity;
+        m_hits = new LongAdder();
+        m_misses = new LongAdder();
+        m_evictions = new LongAdder();
+        m_tableHits = new LongAdder();
+
+        m_segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++)
+            m_segments[i] = new Segment(Math.max(1, capacity / SEGMENTS), m_evictions);
+    }
+
+    // stem a normalized token, consulting the cache first
+    public String stem(String token) {
+        int h = token.hashCode();
+        Segment segment = m_segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+
+        String stem;
+        synchronized (segment) {
+            stem = segment.get(token);
+        }
+        if (stem != null) {
+            m_hits.increment();
+            return stem;
+        }
+
+        m_misses.increment();
+        stem = m_table == null ? null : m_table.get(token);
+        if (stem != null)
+            m_tableHits.increment();
+        else
+            stem = m_stemmer.stem(token);   // computed outside the lock, racing threads produce the same stem
+        synchronized (segment) {
+            segment.put(token, stem);
+        }
+        return stem;
+    }
+
+    public long getHits() {
+        return m_hits.sum();
+    }
+
+    public long getMisses() {
+        return m_misses.sum();
+    }
+
+    public long getEvictions() {
+        return m_evictions.sum();
+    }
+
+    public long getTableHits() {
+        return m_tableHits.sum();
+    }
+
+    public int getCapacity() {
+        return m_capacity;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : m_segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public double getHitRate() {
+        long hits = getHits(), total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public void printStats() {
+        System.out.format("Stem cache: %d/%d entries, %d hits, %d misses, %d evictions (hit rate %.2f%%)\n",
+                size(), m_capacity, getHits(), getMisses(), getEvictions(), 100 * getHitRate());
+        if (m_table != null)
+            System.out.format("Stem table: %d forms, %d of %d misses found\n", m_table.size(), getTableHits(), getMisses());
+    }
+
+    // access-ordered map that drops its least recently used entry once full
+    static class Segment extends LinkedHashMap<String, String> {
+        private static final long serialVersionUID = 1L;
+
+        int m_limit;
+        LongAdder m_evictions;      // shared by all segments of the cache
+
+        Segment(int limit, LongAdder evictions) {
+            super(16, 0.75f, true);
+            m_limit = limit;
+            m_evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            if (size() > m_limit) {
+                m_evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/**
+ *
+ */
+package analyzer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+
+import org.tartarus.snowball.SnowballStemmer;
+
+/**
+ * Precomputed surface form -> stem table of one language, memory-mapped read-only.
+ * Keys are placed by hash and displace: a key's hash picks its bucket, and every bucket has a
+ * seed under which the hashes of all its keys land in distinct slots, so a lookup reads one seed
+ * and one slot. The slot stores the key, which is compared to reject forms that were never
+ * stemmed, and the stem as the length of its common prefix with the key plus the remaining bytes.
+ *
+ * Layout (big-endian): header of 7 ints {MAGIC, VERSION, language ordinal, numKeys, numBuckets,
+ * numSlots, dataBytes}, then int seeds[numBuckets], int entryStart[numSlots+1], byte data[dataBytes];
+ * an entry is an unsigned short key length, an unsigned short common prefix length, the UTF-8 key
+ * and the UTF-8 stem suffix. Empty slots have no bytes.
+ */
+public class StemTable {
+
+    static final int MAGIC = 0x5354454D;    // "STEM"
+    static final int VERSION = 1;
+    static final int HEADER = 7 * 4;
+    static final int KEYS_PER_BUCKET = 4;
+    static final int MAX_SEED = 1 << 20;    // seeds tried per bucket before retrying with more slots
+
+    Language m_language;
+    int m_size;             // number of keys
+    int m_numBuckets;
+    int m_numSlots;
+
+    IntBuffer m_seeds;      // bucket -> seed placing its keys
+    IntBuffer m_entryStart; // slot -> position of its entry in m_data
+    ByteBuffer m_data;      // entries of all slots, back to back
+
+    public StemTable(String filename) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.limit() < HEADER || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+            throw new IOException("Not a stem table: " + filename);
+        m_language = Language.values()[buffer.getInt(8)];
+        m_size = buffer.getInt(12);
+        m_numBuckets = buffer.getInt(16);
+        m_numSlots = buffer.getInt(20);
+        int dataBytes = buffer.getInt(24);
+
+        int position = HEADER;
+        m_seeds = section(buffer, position, m_numBuckets * 4).asIntBuffer();
+        position += m_numBuckets * 4;
+        m_entryStart = section(buffer, position, (m_numSlots + 1) * 4).asIntBuffer();
+        position += (m_numSlots + 1) * 4;
+        m_data = section(buffer, position, dataBytes);
+    }
+
+    // view of bytes [position, position+length) of the mapped file
+    static ByteBuffer section(ByteBuffer buffer, int position, int length) throws IOException {
+        if (position + length > buffer.limit())
+            throw new IOException("Truncated stem table");
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        view.limit(position + length);
+        return view.slice();
+    }
+
+    // FNV-1a over the UTF-8 bytes, finished with the murmur3 mixer
+    static long hash(byte[] bytes) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    static int bucket(long hash, int numBuckets) {
+        return (int) Long.remainderUnsigned(hash, numBuckets);
+    }
+
+    static int slot(long hash, int seed, int numSlots) {
+        return (int) Long.remainderUnsigned(mix(hash ^ seed * 0x9E3779B97F4A7C15L), numSlots);
+    }
+
+    // stem every distinct form with the language's stemmer and write the table
+    public static void write(Language language, Collection<String> forms, String filename) throws IOException {
+        SnowballStemmer stemmer = language.newStemmer();
+        ArrayList<byte[]> keys = new ArrayList<>(), stems = new ArrayList<>();
+        for (String form : new LinkedHashSet<>(forms)) {
+            byte[] key = form.getBytes(StandardCharsets.UTF_8);
+            stemmer.setCurrent(form);
+            stemmer.stem();
+            byte[] stem = stemmer.getCurrent().getBytes(StandardCharsets.UTF_8);
+            if (key.length <= 0xFFFF && stem.length <= 0xFFFF) {  // longer forms are left to the stemmer
+                keys.add(key);
+                stems.add(stem);
+            }
+        }
+
+        int size = keys.size();
+        long[] hashes = new long[size];
+        for (int i = 0; i < size; i++)
+            hashes[i] = hash(keys.get(i));
+
+        int numBuckets = size / KEYS_PER_BUCKET + 1;
+        int[] seeds = null;
+        int[] keyOfSlot = null;
+        for (int numSlots = size + size / 8 + 1; seeds == null; numSlots += numSlots / 8 + 1) {
+            if (numSlots > 4 * size + 64)
+                throw new IOException("Could not place the stems of " + filename + ", two forms share a hash");
+            keyOfSlot = new int[numSlots];
+            seeds = place(hashes, numBuckets, keyOfSlot);
+        }
+        int numSlots = keyOfSlot.length;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), 1 << 16))) {
+            int[] entryStart = new int[numSlots + 1];
+            for (int s = 0; s < numSlots; s++) {
+                int k = keyOfSlot[s] - 1;
+                entryStart[s + 1] = entryStart[s] + (k < 0 ? 0 : 4 + keys.get(k).length + stems.get(k).length - commonPrefix(keys.get(k), stems.get(k)));
+            }
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(language.ordinal());
+            out.writeInt(size);
+            out.writeInt(numBuckets);
+            out.writeInt(numSlots);
+            out.writeInt(entryStart[numSlots]);
+            for (int seed : seeds)
+                out.writeInt(seed);
+            for (int start : entryStart)
+                out.writeInt(start);
+            for (int s = 0; s < numSlots; s++) {
+                int k = keyOfSlot[s] - 1;
+                if (k < 0)
+                    continue;
+                byte[] key = keys.get(k), stem = stems.get(k);
+                int prefix = commonPrefix(key, stem);
+                out.writeShort(key.length);
+                out.writeShort(prefix);
+                out.write(key);
+                out.write(stem, prefix, stem.length - prefix);
+            }
+        }
+    }
+
+    // a seed per bucket, filling keyOfSlot with key+1 per slot; null if some bucket finds no seed
+    static int[] place(long[] hashes, int numBuckets, int[] keyOfSlot) {
+        int numSlots = keyOfSlot.length;
+
+        // keys grouped by bucket, the largest buckets placed first while the table is emptiest
+        int[] bucketStart = new int[numBuckets + 1];
+        for (long h : hashes)
+            bucketStart[bucket(h, numBuckets) + 1]++;
+        for (int b = 0; b < numBuckets; b++)
+            bucketStart[b + 1] += bucketStart[b];
+        int[] bucketKeys = new int[hashes.length], fill = Arrays.copyOf(bucketStart, numBuckets);
+        for (int k = 0; k < hashes.length; k++)
+            bucketKeys[fill[bucket(hashes[k], numBuckets)]++] = k;
+
+        Integer[] order = new Integer[numBuckets];
+        for (int b = 0; b < numBuckets; b++)
+            order[b] = b;
+        Arrays.sort(order, (b1, b2) -> (bucketStart[b2 + 1] - bucketStart[b2]) - (bucketStart[b1 + 1] - bucketStart[b1]));
+
+        int[] seeds = new int[numBuckets];
+        int[] slots = new int[KEYS_PER_BUCKET * 8];
+        for (int b : order) {
+            int from = bucketStart[b], n = bucketStart[b + 1] - from;
+            if (n == 0)
+                break;
+            if (n > slots.length)
+                slots = new int[n];
+
+            int seed = 0;
+            search:
+            for (; seed < MAX_SEED; seed++) {
+                for (int i = 0; i < n; i++) {
+                    int s = slot(hashes[bucketKeys[from + i]], seed, numSlots);
+                    if (keyOfSlot[s] != 0)
+                        continue search;
+                    for (int j = 0; j < i; j++) {
+                        if (slots[j] == s)
+                            continue search;
+                    }
+                    slots[i] = s;
+                }
+                break;
+            }
+            if (seed == MAX_SEED)
+                return null;
+
+            seeds[b] = seed;
+            for (int i = 0; i < n; i++)
+                keyOfSlot[slots[i]] = bucketKeys[from + i] + 1;
+        }
+        return seeds;
+    }
+
+    static int commonPrefix(byte[] key, byte[] stem) {
+        int n = 0;
+        while (n < key.length && n < stem.length && key[n] == stem[n])
+            n++;
+        return n;
+    }
+
+    public Language getLanguage() {
+        return m_language;
+    }
+
+    public int size() {
+        return m_size;
+    }
+
+    // the stem of a form, or null if the table does not hold it
+    public String get(String form) {
+        if (m_size == 0)
+            return null;
+
+        byte[] key = form.getBytes(StandardCharsets.UTF_8);
+        long h = hash(key);
+        int s = slot(h, m_seeds.get(bucket(h, m_numBuckets)), m_numSlots);
+        int start = m_entryStart.get(s), end = m_entryStart.get(s + 1);
+        if (start == end || (m_data.getShort(start) & 0xFFFF) != key.length)
+            return null;
+        for (int i = 0; i < key.length; i++) {
+            if (m_data.get(start + 4 + i) != key[i])
+                return null;
+        }
+
+        // the stem is the first prefix bytes of the key followed by the stored suffix
+        int prefix = m_data.getShort(start + 2) & 0xFFFF, suffixStart = start + 4 + key.length;
+        byte[] stem = Arrays.copyOf(key, prefix + end - suffixStart);
+        for (int i = suffixStart; i < end; i++)
+            stem[prefix + i - suffixStart] = m_data.get(i);
+        return new String(stem, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ *
+ */
+package analyzer;
+
+import java.util.function.Supplier;
+
+import org.tartarus.snowball.SnowballStemmer;
+
+/**
+ * Per-thread Snowball stemmers. A stemmer keeps its working buffer between calls,
+ * so each thread gets exactly one instance and stemming does not allocate one per token.
+ */
+public class StemmerPool {
+
+    ThreadLocal<SnowballStemmer> m_stemmers;    // one stemmer per worker thread
+
+    public StemmerPool(Supplier<SnowballStemmer> factory) {
+        m_stemmers = ThreadLocal.withInitial(factory);
+    }
+
+    // stem a token with the calling thread's stemmer
+    public String stem(String token) {
+        SnowballStemmer stemmer = m_stemmers.get();
+        stemmer.setCurrent(token);
+        if (stemmer.stem())
+            return stemmer.getCurrent();
+        else
+            return token;
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ *
+ */
+package analyzer;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import structures.Lexicon;
+import structures.MappedVocabulary;
+import structures.TermSelection;
+import structures.TopK;
+import structures.Vocabulary;
+
+/**
+ * Prunes a dictionary to a controlled vocabulary: terms with minDF <= DF <= maxDFRatio * N, of which
+ * at most maxSize of the highest DF are kept. The terms are selected in one pass over the
+ * dictionary and renumbered by DF rank; their DF and the corpus size N come along, so the IDF of
+ * every kept term stays available. The source can be a mapped dictionary file, so pruning
+ * parameters can be swept without loading the corpus again.
+ */
+public class VocabularyBuilder {
+
+    int m_minDF;            // rarer terms are dropped
+    double m_maxDFRatio;    // terms in a larger share of the reviews are dropped
+    int m_maxSize;          // most terms kept
+
+    public VocabularyBuilder(int minDF, double maxDFRatio, int maxSize) {
+        if (minDF < 0 || maxDFRatio < 0 || maxSize < 0)
+            throw new IllegalArgumentException("Invalid vocabulary bounds minDF=" + minDF + ", maxDFRatio=" + maxDFRatio + ", maxSize=" + maxSize);
+        m_minDF = minDF;
+        m_maxDFRatio = maxDFRatio;
+        m_maxSize = maxSize;
+    }
+
+    // IDs of the kept terms of a dictionary, highest DF first
+    public int[] select(Lexicon dict) {
+        // without a document count the DF ratio cannot be checked
+        long maxDF = dict.getNumDocs() > 0 ? (long) (m_maxDFRatio * dict.getNumDocs()) : Long.MAX_VALUE;
+        TopK top = m_maxSize < dict.size() ? new TopK(m_maxSize) : null;
+        int[] kept = top == null ? new int[dict.size()] : null;
+        int count = 0;
+
+        for (int id = 0; id < dict.size(); id++) {
+            int df = dict.getDF(id);
+            if (df < m_minDF || df > maxDF)
+                continue;
+            if (top != null)
+                top.offer(id, df);
+            else
+                kept[count++] = id;
+        }
+
+        if (top != null)
+            return top.drain(null);
+        return TermSelection.rank(Arrays.copyOf(kept, count), dict::getDF);
+    }
+
+    // the controlled vocabulary, term ID == DF rank
+    public Vocabulary build(Lexicon dict) {
+        int[] ids = select(dict);
+        return Vocabulary.subset(dict, ids, ids.length);
+    }
+
+    // build and write in the mapped format read by DocAnalyzer.loadVocabulary
+    public Vocabulary write(Lexicon dict, String filename) throws IOException {
+        Vocabulary vocab = build(dict);
+        MappedVocabulary.write(vocab, filename);
+        return vocab;
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ *
+ */
+package benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import org.tartarus.snowball.Among;
+import org.tartarus.snowball.SnowballProgram;
+import org.tartarus.snowball.ext.finnishStemmer;
+
+import analyzer.DocAnalyzer;
+import json.JSONArray;
+import structures.Post;
+
+/**
+ * Cost of the routine callbacks of the Snowball runtime: the same suffix table searched with
+ * routines given as functional callbacks and as reflectively invoked methods, and the Finnish
+ * stemmer, whose tables call routines, over the tokens of a folder.
+ *
+ * Usage: AmongBenchmark [folder] [tokenizer model]
+ */
+public class AmongBenchmark {
+
+    // backward suffix search whose entries all call a routine
+    static class Suffixes extends SnowballProgram {
+
+        static final String[] SUFFIXES = {"ed", "ing", "ly", "ness", "s"};
+
+        Among[] m_callbacks;
+        Among[] m_reflective;
+
+        Suffixes() {
+            m_callbacks = new Among[SUFFIXES.length];
+            m_reflective = new Among[SUFFIXES.length];
+            for (int i = 0; i < SUFFIXES.length; i++) {
+                m_callbacks[i] = new Among(SUFFIXES[i], -1, i + 1, p -> ((Suffixes) p).r_long());
+                m_reflective[i] = new Among(SUFFIXES[i], -1, i + 1, "r_long", this);
+            }
+        }
+
+        boolean r_long() {
+            return cursor >= 3;
+        }
+
+        // search the current word from its end
+        int find(boolean reflective) {
+            limit_backward = 0;
+            cursor = limit;
+            return find_among_b(reflective ? m_reflective : m_callbacks, SUFFIXES.length);
+        }
+
+        // searches per word, so that the dispatch rather than setCurrent dominates
+        static final int REPEAT = 16;
+
+        long findAll(ArrayList<String> words, boolean reflective) {
+            long sum = 0;
+            for (String word : words) {
+                setCurrent(word);
+                for (int i = 0; i < REPEAT; i++)
+                    sum += find(reflective);
+            }
+            return sum;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String folder = args.length > 0 ? args[0] : "data/samples";
+        String model = args.length > 1 ? args[1] : "data/Model/en-token.bin";
+        PipelineBenchmark benchmark = new PipelineBenchmark(null);
+
+        DocAnalyzer analyzer = new DocAnalyzer(model, 2);
+        ArrayList<String> tokens = new ArrayList<>();
+        for (File f : new File(folder).listFiles()) {
+            if (f.isFile() && f.getName().endsWith(".json")) {
+                JSONArray reviews = analyzer.loadJson(f.getAbsolutePath()).getJSONArray("Reviews");
+                for (int i = 0; i < reviews.length(); i++) {
+                    Post review = new Post(reviews.getJSONObject(i));
+                    if (review.isEmpty())
+                        continue;
+                    for (String token : analyzer.tokenize(review.getContent()))
+                        tokens.add(analyzer.normalize(token));
+                }
+            }
+        }
+
+        // only words with one of the suffixes, so every search calls a routine
+        ArrayList<String> matching = new ArrayList<>();
+        for (String token : tokens) {
+            for (String suffix : Suffixes.SUFFIXES) {
+                if (token.endsWith(suffix)) {
+                    matching.add(token);
+                    break;
+                }
+            }
+        }
+
+        Suffixes suffixes = new Suffixes();
+        if (suffixes.findAll(matching, false) != suffixes.findAll(matching, true))
+            throw new IllegalStateException("Callback and reflective dispatch disagree");
+
+        benchmark.measure("among (callback)", () -> {
+            PipelineBenchmark.consume(suffixes.findAll(matching, false));
+            return (long) matching.size() * Suffixes.REPEAT;
+        });
+
+        benchmark.measure("among (reflective)", () -> {
+            PipelineBenchmark.consume(suffixes.findAll(matching, true));
+            return (long) matching.size() * Suffixes.REPEAT;
+        });
+
+        finnishStemmer stemmer = new finnishStemmer();
+        benchmark.measure("finnishStemmer", () -> {
+            for (String token : tokens) {
+                stemmer.setCurrent(token);
+                stemmer.stem();
+                PipelineBenchmark.consume(stemmer.getCurrent());
+            }
+            return tokens.size();
+        });
+    }
+}
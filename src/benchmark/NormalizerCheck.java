@@ -0,0 +1,80 @@
+/**
+ *
+ */
+package benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Random;
+
+import analyzer.DocAnalyzer;
+import analyzer.Normalizer;
+import analyzer.ReviewReader;
+
+/**
+ * Differential check of the single-pass Normalizer.normalize against the regex chain it
+ * replaced: every token of the review files in a folder (data/samples by default) and random
+ * ASCII and non-ASCII strings must normalize the same way. Prints the first mismatches and exits
+ * with status 1 if there are any.
+ *
+ * Usage: NormalizerCheck [folder] [tokenizer model] [random strings]
+ */
+public class NormalizerCheck {
+
+    static final int MAX_REPORTED = 20;
+
+    // characters random strings are drawn from: digits and number punctuation, ASCII letters,
+    // punctuation and symbols, Latin-1 and other scripts, and a surrogate pair
+    static final String ALPHABET = "0123456789.,-+_ abcxyzABCXYZ!?'\"()[]{}#$%&*/\\:;@^`|~"
+            + "\u00e9\u00c9\u00df\u00fc\u00bd\u00b2\u0131\u0130\u0430\u0416\u03a3\u4e2d\u0660\u2013\u2019\u00a0\ud83d\ude00";
+
+    int m_checked;
+    int m_mismatches;
+
+    void check(String token) {
+        m_checked++;
+        String expected = Normalizer.normalizeRegex(token), actual = Normalizer.normalize(token);
+        if (!expected.equals(actual) && m_mismatches++ < MAX_REPORTED)
+            System.out.format("Mismatch on \"%s\": regex \"%s\", single pass \"%s\"\n", token, expected, actual);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String folder = args.length > 0 ? args[0] : "data/samples";
+        String model = args.length > 1 ? args[1] : "data/Model/en-token.bin";
+        int numRandom = args.length > 2 ? Integer.parseInt(args[2]) : 1000000;
+
+        NormalizerCheck checker = new NormalizerCheck();
+        DocAnalyzer analyzer = new DocAnalyzer(model, 2);
+        ArrayList<File> files = new ArrayList<>();
+        for (File f : new File(folder).listFiles()) {
+            if (f.isFile() && f.getName().endsWith(".json"))
+                files.add(f);
+        }
+        for (File f : files) {
+            try (ReviewReader reader = new ReviewReader(f.getAbsolutePath())) {
+                while (reader.hasNext()) {
+                    String content = reader.next().getContent();
+                    if (content == null)
+                        continue;
+                    for (String token : analyzer.tokenize(content))
+                        checker.check(token);
+                }
+            }
+        }
+        int corpus = checker.m_checked;
+
+        Random random = new Random(42);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < numRandom; i++) {
+            token.setLength(0);
+            for (int n = random.nextInt(12); n > 0; n--)
+                token.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            checker.check(token.toString());
+        }
+
+        System.out.format("%d corpus tokens from %s and %d random strings checked, %d mismatches\n",
+                corpus, folder, numRandom, checker.m_mismatches);
+        if (checker.m_mismatches > 0)
+            System.exit(1);
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ *
+ */
+package benchmark;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.tartarus.snowball.ext.englishStemmer;
+
+import analyzer.DocAnalyzer;
+import analyzer.Language;
+import analyzer.Normalizer;
+import analyzer.StemTable;
+import analyzer.StemmerPool;
+import json.JSONArray;
+import json.JSONObject;
+import structures.Post;
+import structures.SeenSet;
+
+/**
+ * Micro-benchmarks of the DocAnalyzer pipeline stages over the review files of a folder
+ * (data/samples by default). Every stage runs a few warm-up rounds, then measured rounds, and
+ * reports the time and the bytes allocated per operation, the latter read from the thread
+ * allocation counter of the JVM.
+ *
+ * Usage: PipelineBenchmark [folder] [tokenizer model] [stage,stage,...]
+ */
+public class PipelineBenchmark {
+
+    static final int WARMUP = 5;        // rounds run before measuring, to let the JIT settle
+    static final int ROUNDS = 10;       // measured rounds
+
+    // one round of a stage; returns the number of operations it performed
+    interface Stage {
+        long run() throws Exception;
+    }
+
+    static volatile long s_sink;        // results are folded in here so the JIT cannot drop the work
+
+    String[] m_filter;                  // stages to run, null for all
+
+    public PipelineBenchmark(String[] filter) {
+        m_filter = filter;
+    }
+
+    // time per operation and bytes allocated per operation of a stage, printed as one row
+    public void measure(String name, Stage stage) throws Exception {
+        if (m_filter != null && !Arrays.asList(m_filter).contains(name))
+            return;
+
+        for (int i = 0; i < WARMUP; i++)
+            stage.run();
+
+        long ops = 0, nanos = 0, bytes = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long allocated = allocatedBytes(), start = System.nanoTime();
+            ops += stage.run();
+            nanos += System.nanoTime() - start;
+            bytes += allocatedBytes() - allocated;
+        }
+        System.out.format("%-20s %14.1f ns/op %14.1f B/op %12d ops\n", name, (double) nanos / ops, (double) bytes / ops, ops / ROUNDS);
+    }
+
+    static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    static void consume(Object o) {
+        s_sink += o == null ? 0 : o.hashCode();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String folder = args.length > 0 ? args[0] : "data/samples";
+        String model = args.length > 1 ? args[1] : "data/Model/en-token.bin";
+        PipelineBenchmark benchmark = new PipelineBenchmark(args.length > 2 ? args[2].split(",") : null);
+
+        // inputs of every stage, prepared once with the stage before it
+        DocAnalyzer analyzer = new DocAnalyzer(model, 2);
+        ArrayList<File> files = new ArrayList<>();
+        ArrayList<JSONObject> jsons = new ArrayList<>();
+        ArrayList<String> contents = new ArrayList<>();
+        for (File f : new File(folder).listFiles()) {
+            if (f.isFile() && f.getName().endsWith(".json")) {
+                files.add(f);
+                JSONObject json = analyzer.loadJson(f.getAbsolutePath());
+                jsons.add(json);
+                JSONArray reviews = json.getJSONArray("Reviews");
+                for (int i = 0; i < reviews.length(); i++) {
+                    Post review = new Post(reviews.getJSONObject(i));
+                    if (!review.isEmpty())
+                        contents.add(review.getContent());
+                }
+            }
+        }
+        ArrayList<String[]> tokenized = new ArrayList<>();
+        ArrayList<String> tokens = new ArrayList<>(), normalized = new ArrayList<>();
+        for (String content : contents) {
+            String[] reviewTokens = analyzer.tokenize(content);
+            tokenized.add(reviewTokens);
+            for (String token : reviewTokens) {
+                tokens.add(token);
+                normalized.add(analyzer.normalize(token));
+            }
+        }
+        System.out.format("%d files, %d reviews, %d tokens from %s\n", files.size(), contents.size(), tokens.size(), folder);
+
+        benchmark.measure("loadJson", () -> {
+            for (File f : files)
+                consume(analyzer.loadJson(f.getAbsolutePath()));
+            return files.size();
+        });
+
+        benchmark.measure("tokenize", () -> {
+            for (String content : contents)
+                consume(analyzer.tokenize(content));
+            return contents.size();
+        });
+
+        benchmark.measure("normalize", () -> {
+            for (String token : tokens)
+                consume(analyzer.normalize(token));
+            return tokens.size();
+        });
+
+        benchmark.measure("normalize (regex)", () -> {
+            for (String token : tokens)
+                consume(Normalizer.normalizeRegex(token));
+            return tokens.size();
+        });
+
+        benchmark.measure("snowballStemming", () -> {
+            for (String token : normalized)
+                consume(analyzer.snowballStemming(token));
+            return normalized.size();
+        });
+
+        StemmerPool stemmer = new StemmerPool(englishStemmer::new);
+        benchmark.measure("stem (uncached)", () -> {
+            for (String token : normalized)
+                consume(stemmer.stem(token));
+            return normalized.size();
+        });
+
+        File table = File.createTempFile("stems", ".bin");
+        table.deleteOnExit();
+        StemTable.write(Language.ENGLISH, normalized, table.getPath());
+        StemTable stems = new StemTable(table.getPath());
+        benchmark.measure("stem (table)", () -> {
+            for (String token : normalized)
+                consume(stems.get(token));
+            return normalized.size();
+        });
+
+        DocAnalyzer counter = new DocAnalyzer(model, 2);
+        SeenSet seen = new SeenSet();
+        benchmark.measure("checkDict", () -> {
+            for (String[] review : tokenized) {
+                seen.clear();
+                for (String token : review)
+                    counter.checkDict(counter.normalize(token), seen);
+            }
+            return tokens.size();
+        });
+
+        // encoding against a dictionary trained on the same files; as queries, so no round grows an index
+        DocAnalyzer encoder = new DocAnalyzer(model, 2);
+        encoder.loadDirectory(folder, ".json", "train");
+        ArrayList<Post> encoded = new ArrayList<>();
+        benchmark.measure("encodeQueryDocs", () -> {
+            encoded.clear();
+            for (JSONObject json : jsons)
+                encoder.encodeQueryDocs(json, encoded);
+            return encoded.size();
+        });
+
+        benchmark.measure("Post.similiarity", () -> {
+            double sum = 0;
+            for (Post p : encoded) {
+                for (Post q : encoded)
+                    sum += p.similiarity(q);
+            }
+            consume(sum);
+            return (long) encoded.size() * encoded.size();
+        });
+    }
+}
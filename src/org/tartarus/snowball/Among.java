@@ -3,12 +3,39 @@ package org.tartarus.snowball;
 import java.lang.reflect.Method;
 
 public class Among {
+    /* routine run when the search string matches; it is handed the
+     * program being run, so one static table serves every instance,
+     * e.g. p -> ((finnishStemmer) p).r_VI()
+     */
+    public interface Routine {
+	boolean call(SnowballProgram program);
+    }
+
+    public Among (String s, int substring_i, int result) {
+	this(s, substring_i, result, (Routine) null);
+    }
+
+    public Among (String s, int substring_i, int result, Routine routine) {
+        this.s_size = s.length();
+        this.s = s.toCharArray();
+        this.substring_i = substring_i;
+	this.result = result;
+	this.routine = routine;
+	this.method = null;
+	this.methodobject = null;
+    }
+
+    /* reflective form of older generated code: the routine is looked
+     * up by name on the class of methodobject and invoked on the
+     * program being run
+     */
     public Among (String s, int substring_i, int result,
 		  String methodname, SnowballProgram methodobject) {
         this.s_size = s.length();
         this.s = s.toCharArray();
         this.substring_i = substring_i;
 	this.result = result;
+	this.routine = null;
 	this.methodobject = methodobject;
 	if (methodname.length() == 0) {
 	    this.method = null;
@@ -16,6 +43,7 @@ public class Among {
 	    try {
 		this.method = methodobject.getClass().
 		getDeclaredMethod(methodname, new Class[0]);
+		this.method.setAccessible(true);
 	    } catch (NoSuchMethodException e) {
 		throw new RuntimeException(e);
 	    }
@@ -26,6 +54,7 @@ public class Among {
     public final char[] s; /* search string */
     public final int substring_i; /* index to longest matching substring */
     public final int result; /* result of the lookup */
+    public final Routine routine; /* routine to call if substring matches */
     public final Method method; /* method to use if substring matches */
-    public final SnowballProgram methodobject; /* object to invoke method on */
+    public final SnowballProgram methodobject; /* class the method was looked up on */
 };
@@ -5,7 +5,7 @@ import java.lang.reflect.InvocationTargetException;
 public class SnowballProgram {
     protected SnowballProgram()
     {
-	current = new StringBuffer();
+	current = new char[16];
 	setCurrent("");
     }
 
@@ -14,9 +14,27 @@ public class SnowballProgram {
      */
     public void setCurrent(String value)
     {
-	current.replace(0, current.length(), value);
+	ensure_capacity(value.length());
+	value.getChars(0, value.length(), current, 0);
+	current_length = value.length();
+	reset();
+    }
+
+    /**
+     * Set the current string to buf[off..off+len), without creating a String.
+     */
+    public void setCurrent(char[] buf, int off, int len)
+    {
+	ensure_capacity(len);
+	System.arraycopy(buf, off, current, 0, len);
+	current_length = len;
+	reset();
+    }
+
+    private void reset()
+    {
 	cursor = 0;
-	limit = current.length();
+	limit = current_length;
 	limit_backward = 0;
 	bra = cursor;
 	ket = limit;
@@ -27,19 +45,36 @@ public class SnowballProgram {
      */
     public String getCurrent()
     {
-        String result = current.toString();
-        // Make a new StringBuffer.  If we reuse the old one, and a user of
-        // the library keeps a reference to the buffer returned (for example,
-        // by converting it to a String in a way which doesn't force a copy),
-        // the buffer size will not decrease, and we will risk wasting a large
-        // amount of memory.
-        // Thanks to Wolfram Esser for spotting this problem.
-        current = new StringBuffer();
-        return result;
+        // always a copy, so the buffer can be reused for the next word
+        return new String(current, 0, current_length);
     }
 
-    // current string
-    protected StringBuffer current;
+    /**
+     * The buffer holding the current string in its first
+     * getCurrentBufferLength() chars; valid until the next call.
+     */
+    public char[] getCurrentBuffer()
+    {
+	return current;
+    }
+
+    public int getCurrentBufferLength()
+    {
+	return current_length;
+    }
+
+    private void ensure_capacity(int capacity)
+    {
+	if (capacity > current.length) {
+	    char[] buffer = new char[Math.max(capacity, current.length * 2)];
+	    System.arraycopy(current, 0, buffer, 0, current_length);
+	    current = buffer;
+	}
+    }
+
+    // current string: the first current_length chars of an unsynchronized buffer
+    protected char[] current;
+    protected int current_length;
 
     protected int cursor;
     protected int limit;
@@ -50,6 +85,7 @@ public class SnowballProgram {
     protected void copy_from(SnowballProgram other)
     {
 	current          = other.current;
+	current_length   = other.current_length;
 	cursor           = other.cursor;
 	limit            = other.limit;
 	limit_backward   = other.limit_backward;
@@ -60,7 +96,7 @@ public class SnowballProgram {
     protected boolean in_grouping(char [] s, int min, int max)
     {
 	if (cursor >= limit) return false;
-	char ch = current.charAt(cursor);
+	char ch = current[cursor];
 	if (ch > max || ch < min) return false;
 	ch -= min;
 	if ((s[ch >> 3] & (0X1 << (ch & 0X7))) == 0) return false;
@@ -71,7 +107,7 @@ public class SnowballProgram {
     protected boolean in_grouping_b(char [] s, int min, int max)
     {
 	if (cursor <= limit_backward) return false;
-	char ch = current.charAt(cursor - 1);
+	char ch = current[cursor - 1];
 	if (ch > max || ch < min) return false;
 	ch -= min;
 	if ((s[ch >> 3] & (0X1 << (ch & 0X7))) == 0) return false;
@@ -82,7 +118,7 @@ public class SnowballProgram {
     protected boolean out_grouping(char [] s, int min, int max)
     {
 	if (cursor >= limit) return false;
-	char ch = current.charAt(cursor);
+	char ch = current[cursor];
 	if (ch > max || ch < min) {
 	    cursor++;
 	    return true;
@@ -98,7 +134,7 @@ public class SnowballProgram {
     protected boolean out_grouping_b(char [] s, int min, int max)
     {
 	if (cursor <= limit_backward) return false;
-	char ch = current.charAt(cursor - 1);
+	char ch = current[cursor - 1];
 	if (ch > max || ch < min) {
 	    cursor--;
 	    return true;
@@ -114,7 +150,7 @@ public class SnowballProgram {
     protected boolean in_range(int min, int max)
     {
 	if (cursor >= limit) return false;
-	char ch = current.charAt(cursor);
+	char ch = current[cursor];
 	if (ch > max || ch < min) return false;
 	cursor++;
 	return true;
@@ -123,7 +159,7 @@ public class SnowballProgram {
     protected boolean in_range_b(int min, int max)
     {
 	if (cursor <= limit_backward) return false;
-	char ch = current.charAt(cursor - 1);
+	char ch = current[cursor - 1];
 	if (ch > max || ch < min) return false;
 	cursor--;
 	return true;
@@ -132,7 +168,7 @@ public class SnowballProgram {
     protected boolean out_range(int min, int max)
     {
 	if (cursor >= limit) return false;
-	char ch = current.charAt(cursor);
+	char ch = current[cursor];
 	if (!(ch > max || ch < min)) return false;
 	cursor++;
 	return true;
@@ -141,29 +177,29 @@ public class SnowballProgram {
     protected boolean out_range_b(int min, int max)
     {
 	if (cursor <= limit_backward) return false;
-	char ch = current.charAt(cursor - 1);
+	char ch = current[cursor - 1];
 	if(!(ch > max || ch < min)) return false;
 	cursor--;
 	return true;
     }
 
-    protected boolean eq_s(int s_size, String s)
+    protected boolean eq_s(int s_size, CharSequence s)
     {
 	if (limit - cursor < s_size) return false;
 	int i;
 	for (i = 0; i != s_size; i++) {
-	    if (current.charAt(cursor + i) != s.charAt(i)) return false;
+	    if (current[cursor + i] != s.charAt(i)) return false;
 	}
 	cursor += s_size;
 	return true;
     }
 
-    protected boolean eq_s_b(int s_size, String s)
+    protected boolean eq_s_b(int s_size, CharSequence s)
     {
 	if (cursor - limit_backward < s_size) return false;
 	int i;
 	for (i = 0; i != s_size; i++) {
-	    if (current.charAt(cursor - s_size + i) != s.charAt(i)) return false;
+	    if (current[cursor - s_size + i] != s.charAt(i)) return false;
 	}
 	cursor -= s_size;
 	return true;
@@ -171,11 +207,11 @@ public class SnowballProgram {
 
     protected boolean eq_v(CharSequence s)
     {
-	return eq_s(s.length(), s.toString());
+	return eq_s(s.length(), s);
     }
 
     protected boolean eq_v_b(CharSequence s)
-    {   return eq_s_b(s.length(), s.toString());
+    {   return eq_s_b(s.length(), s);
     }
 
     protected int find_among(Among v[], int v_size)
@@ -202,7 +238,7 @@ public class SnowballProgram {
 		    diff = -1;
 		    break;
 		}
-		diff = current.charAt(c + common) - w.s[i2];
+		diff = current[c + common] - w.s[i2];
 		if (diff != 0) break;
 		common++;
 	    }
@@ -229,19 +265,8 @@ public class SnowballProgram {
 	    Among w = v[i];
 	    if (common_i >= w.s_size) {
 		cursor = c + w.s_size;
-		if (w.method == null) return w.result;
-		boolean res;
-		try {
-		    Object resobj = w.method.invoke(w.methodobject,
-						    new Object[0]);
-		    res = resobj.toString().equals("true");
-		} catch (InvocationTargetException e) {
-		    res = false;
-		    // FIXME - debug message
-		} catch (IllegalAccessException e) {
-		    res = false;
-		    // FIXME - debug message
-		}
+		if (w.routine == null && w.method == null) return w.result;
+		boolean res = call_among(w);
 		cursor = c + w.s_size;
 		if (res) return w.result;
 	    }
@@ -250,6 +275,19 @@ public class SnowballProgram {
 	}
     }
 
+    // run the routine of an Among entry on this program
+    private boolean call_among(Among w)
+    {
+	if (w.routine != null) return w.routine.call(this);
+	try {
+	    return ((Boolean) w.method.invoke(this, new Object[0])).booleanValue();
+	} catch (InvocationTargetException e) {
+	    return false;
+	} catch (IllegalAccessException e) {
+	    return false;
+	}
+    }
+
     // find_among_b is for backwards processing. Same comments apply
     protected int find_among_b(Among v[], int v_size)
     {
@@ -275,7 +313,7 @@ public class SnowballProgram {
 		    diff = -1;
 		    break;
 		}
-		diff = current.charAt(c - 1 - common) - w.s[i2];
+		diff = current[c - 1 - common] - w.s[i2];
 		if (diff != 0) break;
 		common++;
 	    }
@@ -297,20 +335,8 @@ public class SnowballProgram {
 	    Among w = v[i];
 	    if (common_i >= w.s_size) {
 		cursor = c - w.s_size;
-		if (w.method == null) return w.result;
-
-		boolean res;
-		try {
-		    Object resobj = w.method.invoke(w.methodobject,
-						    new Object[0]);
-		    res = resobj.toString().equals("true");
-		} catch (InvocationTargetException e) {
-		    res = false;
-		    // FIXME - debug message
-		} catch (IllegalAccessException e) {
-		    res = false;
-		    // FIXME - debug message
-		}
+		if (w.routine == null && w.method == null) return w.result;
+		boolean res = call_among(w);
 		cursor = c - w.s_size;
 		if (res) return w.result;
 	    }
@@ -322,10 +348,14 @@ public class SnowballProgram {
     /* to replace chars between c_bra and c_ket in current by the
      * chars in s.
      */
-    protected int replace_s(int c_bra, int c_ket, String s)
+    protected int replace_s(int c_bra, int c_ket, CharSequence s)
     {
 	int adjustment = s.length() - (c_ket - c_bra);
-	current.replace(c_bra, c_ket, s);
+	ensure_capacity(current_length + adjustment);
+	System.arraycopy(current, c_ket, current, c_ket + adjustment, current_length - c_ket);
+	for (int i = 0; i < s.length(); i++)
+	    current[c_bra + i] = s.charAt(i);
+	current_length += adjustment;
 	limit += adjustment;
 	if (cursor >= c_ket) cursor += adjustment;
 	else if (cursor > c_bra) cursor = c_bra;
@@ -337,7 +367,7 @@ public class SnowballProgram {
 	if (bra < 0 ||
 	    bra > ket ||
 	    ket > limit ||
-	    limit > current.length())   // this line could be removed
+	    limit > current_length)   // this line could be removed
 	{
 	    System.err.println("faulty slice operation");
 	// FIXME: report error somehow.
@@ -357,7 +387,8 @@ public class SnowballProgram {
 
     protected void slice_from(CharSequence s)
     {
-        slice_from(s.toString());
+	slice_check();
+	replace_s(bra, ket, s);
     }
 
     protected void slice_del()
@@ -374,15 +405,17 @@ public class SnowballProgram {
 
     protected void insert(int c_bra, int c_ket, CharSequence s)
     {
-	insert(c_bra, c_ket, s.toString());
+	int adjustment = replace_s(c_bra, c_ket, s);
+	if (c_bra <= bra) bra += adjustment;
+	if (c_bra <= ket) ket += adjustment;
     }
 
     /* Copy the slice into the supplied StringBuffer */
     protected StringBuffer slice_to(StringBuffer s)
     {
 	slice_check();
-	int len = ket - bra;
-	s.replace(0, s.length(), current.substring(bra, ket));
+	s.setLength(0);
+	s.append(current, bra, ket - bra);
 	return s;
     }
 
@@ -390,20 +423,22 @@ public class SnowballProgram {
     protected StringBuilder slice_to(StringBuilder s)
     {
 	slice_check();
-	int len = ket - bra;
-	s.replace(0, s.length(), current.substring(bra, ket));
+	s.setLength(0);
+	s.append(current, bra, ket - bra);
 	return s;
     }
 
     protected StringBuffer assign_to(StringBuffer s)
     {
-	s.replace(0, s.length(), current.substring(0, limit));
+	s.setLength(0);
+	s.append(current, 0, limit);
 	return s;
     }
 
     protected StringBuilder assign_to(StringBuilder s)
     {
-	s.replace(0, s.length(), current.substring(0, limit));
+	s.setLength(0);
+	s.append(current, 0, limit);
 	return s;
     }
 
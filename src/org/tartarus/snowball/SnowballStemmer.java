@@ -1,7 +1,15 @@
-
 package org.tartarus.snowball;
 import java.lang.reflect.InvocationTargetException;
 
 public abstract class SnowballStemmer extends SnowballProgram {
     public abstract boolean stem();
+
+    /**
+     * Stem buf[off..off+len) without creating a String; the stem is left in
+     * getCurrentBuffer()[0..getCurrentBufferLength()).
+     */
+    public boolean stem(char[] buf, int off, int len) {
+	setCurrent(buf, off, len);
+	return stem();
+    }
 };
@@ -11,11 +11,46 @@ import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.OutputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class TestApp {
     private static void usage()
     {
-        System.err.println("Usage: TestApp <algorithm> <input file> [-o <output file>]");
+        System.err.println("Usage: TestApp <algorithm> <input file> [-o <output file> [<repeat>]] [-batch [<threads>]]");
+        System.err.println("  -batch stems on several threads with the same output; it needs a platform charset");
+        System.err.println("  that keeps ASCII whitespace as single bytes, such as UTF-8, and falls back to one thread otherwise");
+    }
+
+    // input bytes per batch chunk, before moving the end to the next whitespace
+    private static final int CHUNK_SIZE = 1 << 22;
+
+    // state of one batch worker thread
+    private static class Worker {
+	SnowballStemmer stemmer;
+	CharsetDecoder decoder;
+	CharsetEncoder encoder;
+	char[] word = new char[64];
+    }
+
+    // stemmed output of one chunk
+    private static class Chunk {
+	ByteBuffer output;
+	long words;
     }
 
     public static void main(String [] args) throws Throwable {
@@ -24,9 +59,21 @@ public class TestApp {
             return;
         }
 
-	Class stemClass = Class.forName("org.tartarus.snowball.ext." +
-					args[0] + "Stemmer");
-        SnowballStemmer stemmer = (SnowballStemmer) stemClass.newInstance();
+	int threads = 0;
+	for (int i = 2; i < args.length; i++) {
+	    if (args[i].equals("-batch")) {
+		threads = i + 1 < args.length ? Integer.parseInt(args[i + 1])
+					      : Runtime.getRuntime().availableProcessors();
+		String [] rest = new String[i];
+		System.arraycopy(args, 0, rest, 0, i);
+		args = rest;
+		break;
+	    }
+	}
+
+	Class<? extends SnowballStemmer> stemClass = Class.forName("org.tartarus.snowball.ext." +
+					args[0] + "Stemmer").asSubclass(SnowballStemmer.class);
+        SnowballStemmer stemmer = stemClass.getDeclaredConstructor().newInstance();
 
 	Reader reader;
 	reader = new InputStreamReader(new FileInputStream(args[1]));
@@ -46,14 +93,24 @@ public class TestApp {
 	} else {
 	    outstream = System.out;
 	}
-	Writer output = new OutputStreamWriter(outstream);
-	output = new BufferedWriter(output);
 
 	int repeat = 1;
 	if (args.length > 4) {
 	    repeat = Integer.parseInt(args[4]);
 	}
 
+	if (threads > 0 && !splitsAtWhitespace(Charset.defaultCharset())) {
+	    System.err.println("Cannot split " + Charset.defaultCharset() + " input at whitespace bytes, stemming on one thread");
+	    threads = 0;
+	}
+	if (threads > 0) {
+	    batch(stemClass, args[1], outstream, repeat, threads);
+	    return;
+	}
+
+	Writer output = new OutputStreamWriter(outstream);
+	output = new BufferedWriter(output);
+
 	Object [] emptyArgs = new Object[0];
 	int character;
 	while ((character = reader.read()) != -1) {
@@ -74,4 +131,124 @@ public class TestApp {
 	}
 	output.flush();
     }
+
+    /**
+     * Batch mode for large word lists: the input is memory-mapped in chunks
+     * split after ASCII whitespace, so no word is cut in two, and the chunks
+     * are stemmed on a pool of threads with one stemmer each. Input and output
+     * use the platform charset and the output is written in input order, so it
+     * is the same as in the serial mode. The throughput goes to stderr.
+     */
+    private static void batch(final Class<? extends SnowballStemmer> stemClass, String input, OutputStream outstream,
+			      final int repeat, int threads) throws Throwable
+    {
+	long start = System.nanoTime(), words = 0;
+	final ThreadLocal<Worker> workers = new ThreadLocal<Worker>() {
+	    @Override
+	    protected Worker initialValue() {
+		Worker worker = new Worker();
+		try {
+		    worker.stemmer = stemClass.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+		    throw new IllegalStateException(e);
+		}
+		worker.decoder = Charset.defaultCharset().newDecoder()
+		    .onMalformedInput(CodingErrorAction.REPLACE)
+		    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+		worker.encoder = Charset.defaultCharset().newEncoder()
+		    .onMalformedInput(CodingErrorAction.REPLACE)
+		    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+		return worker;
+	    }
+	};
+
+	ExecutorService pool = Executors.newFixedThreadPool(threads);
+	try (final FileChannel channel = FileChannel.open(Paths.get(input), StandardOpenOption.READ)) {
+	    // a few chunks per thread in flight, written out as soon as the oldest is done
+	    ArrayDeque<Future<Chunk>> pending = new ArrayDeque<Future<Chunk>>();
+	    long size = channel.size(), position = 0;
+	    while (position < size || !pending.isEmpty()) {
+		while (position < size && pending.size() < threads * 4) {
+		    final long from = position;
+		    final long to = nextBoundary(channel, Math.min(size, position + CHUNK_SIZE));
+		    pending.add(pool.submit(() -> stemChunk(workers.get(), channel, from, to, repeat)));
+		    position = to;
+		}
+		Chunk chunk = pending.poll().get();
+		outstream.write(chunk.output.array(), chunk.output.arrayOffset(), chunk.output.limit());
+		words += chunk.words;
+	    }
+	} finally {
+	    pool.shutdownNow();
+	}
+	outstream.flush();
+
+	double seconds = (System.nanoTime() - start) / 1e9;
+	System.err.format("Stemmed %d words in %.2fs with %d threads (%.0f words/sec)\n",
+			  words, seconds, threads, words / seconds);
+    }
+
+    // whether ASCII is encoded as itself and no multi-byte sequence or shift state spans an
+    // ASCII whitespace byte, as in UTF-8 and the ISO-8859 charsets
+    private static boolean splitsAtWhitespace(Charset charset)
+    {
+	byte[] ascii = new byte[128];
+	for (int i = 0; i < ascii.length; i++) {
+	    ascii[i] = (byte) i;
+	}
+	return charset.canEncode() && !charset.name().contains("2022")
+	    && Arrays.equals(new String(ascii, StandardCharsets.US_ASCII).getBytes(charset), ascii);
+    }
+
+    // position just after the first ASCII whitespace byte at or after position, or the end of the file
+    private static long nextBoundary(FileChannel channel, long position) throws IOException
+    {
+	ByteBuffer block = ByteBuffer.allocate(4096);
+	long size = channel.size();
+	while (position < size) {
+	    block.clear();
+	    int n = channel.read(block, position);
+	    for (int i = 0; i < n; i++) {
+		byte b = block.get(i);
+		if (b >= 0 && Character.isWhitespace((char) b)) return position + i + 1;
+	    }
+	    position += n;
+	}
+	return size;
+    }
+
+    // the words of bytes [from, to) lowercased and stemmed, one per line, as in the serial mode;
+    // like there, a last word without whitespace after it at the end of the file is dropped
+    private static Chunk stemChunk(Worker worker, FileChannel channel, long from, long to, int repeat)
+	throws IOException
+    {
+	CharBuffer text = worker.decoder.decode(channel.map(FileChannel.MapMode.READ_ONLY, from, to - from));
+	StringBuilder output = new StringBuilder(text.remaining());
+	Chunk chunk = new Chunk();
+	int length = 0;
+	for (int i = 0; i < text.limit(); i++) {
+	    char ch = text.get(i);
+	    if (Character.isWhitespace(ch)) {
+		if (length > 0) {
+		    worker.stemmer.stem(worker.word, 0, length);
+		    for (int r = repeat; r > 1; r--) {
+			worker.stemmer.stem();
+		    }
+		    output.append(worker.stemmer.getCurrentBuffer(), 0, worker.stemmer.getCurrentBufferLength());
+		    output.append('\n');
+		    chunk.words++;
+		    length = 0;
+		}
+	    } else {
+		if (length == worker.word.length) {
+		    char[] word = new char[length * 2];
+		    System.arraycopy(worker.word, 0, word, 0, length);
+		    worker.word = word;
+		}
+		worker.word[length++] = Character.toLowerCase(ch);
+	    }
+	}
+	chunk.output = worker.encoder.encode(CharBuffer.wrap(output));
+	return chunk;
+    }
 }
@@ -0,0 +1,73 @@
+/**
+ *
+ */
+package structures;
+
+import java.util.List;
+
+/**
+ * Read-only sparse matrix in compressed sparse row form: the vectors of a set of reviews
+ * packed back to back into three flat arrays, with the L2 norm of every row.
+ */
+public class CsrMatrix {
+
+    int[] m_rowStart;       // row -> first entry, m_rowStart[rows] == number of entries
+    int[] m_columns;        // entry -> term ID, increasing within a row
+    double[] m_values;      // entry -> weight
+    double[] m_norms;       // row -> L2 norm
+    int m_numColumns;       // 1 + largest term ID
+
+    public CsrMatrix(List<SparseVector> rows) {
+        int entries = 0;
+        for (SparseVector row : rows)
+            entries += row.size();
+
+        m_rowStart = new int[rows.size() + 1];
+        m_columns = new int[entries];
+        m_values = new double[entries];
+        m_norms = new double[rows.size()];
+        m_numColumns = 0;
+
+        int e = 0;
+        for (int r = 0; r < rows.size(); r++) {
+            SparseVector row = rows.get(r);
+            m_rowStart[r] = e;
+            for (int i = 0; i < row.size(); i++, e++) {
+                m_columns[e] = row.getID(i);
+                m_values[e] = row.getWeight(i);
+            }
+            if (row.size() > 0)
+                m_numColumns = Math.max(m_numColumns, row.getID(row.size() - 1) + 1);
+            m_norms[r] = row.getNorm();
+        }
+        m_rowStart[rows.size()] = e;
+    }
+
+    public int numRows() {
+        return m_norms.length;
+    }
+
+    public int numColumns() {
+        return m_numColumns;
+    }
+
+    public int rowStart(int row) {
+        return m_rowStart[row];
+    }
+
+    public int rowEnd(int row) {
+        return m_rowStart[row + 1];
+    }
+
+    public int getColumn(int entry) {
+        return m_columns[entry];
+    }
+
+    public double getValue(int entry) {
+        return m_values[entry];
+    }
+
+    public double getNorm(int row) {
+        return m_norms[row];
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ *
+ */
+package structures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Posting lists from term ID to the documents containing it with their TF-IDF weights.
+ * Queries are scored term-at-a-time, so documents sharing no term with the query are never
+ * visited, and only the k best cosine similarities are kept in a bounded min-heap.
+ */
+public class InvertedIndex {
+
+    int[][] m_postDocs;         // term ID -> documents containing it
+    double[][] m_postWeights;   // term ID -> weight of the term in each of those documents, as in their SparseVector
+    int[] m_postSize;           // term ID -> length of its posting list
+
+    ArrayList<Post> m_docs;     // document ID -> review
+    double[] m_norms;           // document ID -> L2 norm of its vector
+
+    // per-thread score accumulators, reset after each query through the list of touched documents
+    ThreadLocal<double[]> m_scores = ThreadLocal.withInitial(() -> new double[0]);
+
+    public InvertedIndex() {
+        m_postDocs = new int[1024][];
+        m_postWeights = new double[1024][];
+        m_postSize = new int[1024];
+        m_docs = new ArrayList<>();
+        m_norms = new double[1024];
+    }
+
+    public int numDocs() {
+        return m_docs.size();
+    }
+
+    public Post getDocument(int doc) {
+        return m_docs.get(doc);
+    }
+
+    public double getNorm(int doc) {
+        return m_norms[doc];
+    }
+
+    // index a review by its encoded vector; returns its document ID
+    public int addDocument(Post post) {
+        int doc = m_docs.size();
+        m_docs.add(post);
+        if (doc == m_norms.length)
+            m_norms = Arrays.copyOf(m_norms, doc * 2);
+
+        SparseVector vector = post.getVct();
+        for (int i = 0; i < vector.size(); i++)
+            addPosting(vector.getID(i), doc, vector.getWeight(i));
+        m_norms[doc] = vector.getNorm();
+        return doc;
+    }
+
+    void addPosting(int term, int doc, double weight) {
+        if (term >= m_postSize.length) {
+            int capacity = Math.max(term + 1, m_postSize.length * 2);
+            m_postDocs = Arrays.copyOf(m_postDocs, capacity);
+            m_postWeights = Arrays.copyOf(m_postWeights, capacity);
+            m_postSize = Arrays.copyOf(m_postSize, capacity);
+        }
+
+        int size = m_postSize[term];
+        if (m_postDocs[term] == null) {
+            m_postDocs[term] = new int[4];
+            m_postWeights[term] = new double[4];
+        }
+        else if (size == m_postDocs[term].length) {
+            m_postDocs[term] = Arrays.copyOf(m_postDocs[term], size * 2);
+            m_postWeights[term] = Arrays.copyOf(m_postWeights[term], size * 2);
+        }
+        m_postDocs[term][size] = doc;
+        m_postWeights[term][size] = weight;
+        m_postSize[term] = size + 1;
+    }
+
+    // the k documents most cosine-similar to a query, best first; their scores are written to topScores
+    public int[] search(SparseVector query, int k, double[] topScores) {
+        double[] scores = m_scores.get();
+        if (scores.length < m_docs.size()) {
+            scores = new double[m_norms.length];
+            m_scores.set(scores);
+        }
+
+        int[] touched = new int[16];
+        int numTouched = 0;
+        double norm = query.getNorm();
+
+        // term-at-a-time accumulation of the dot products; summed in term order over the same double
+        // weights, so a score equals SparseVector.cosine and the batch scores exactly
+        for (int i = 0; i < query.size(); i++) {
+            int term = query.getID(i);
+            double weight = query.getWeight(i);
+            if (term < 0 || term >= m_postSize.length)
+                continue;
+
+            int[] docs = m_postDocs[term];
+            double[] postWeights = m_postWeights[term];
+            for (int p = 0; p < m_postSize[term]; p++) {
+                int doc = docs[p];
+                if (scores[doc] == 0) {     // weights are positive, so zero means not touched yet
+                    if (numTouched == touched.length)
+                        touched = Arrays.copyOf(touched, numTouched * 2);
+                    touched[numTouched++] = doc;
+                }
+                scores[doc] += weight * postWeights[p];
+            }
+        }
+
+        // bounded min-heap holding the best k documents seen so far
+        TopK top = new TopK(k);
+        for (int t = 0; t < numTouched; t++) {
+            int doc = touched[t];
+            top.offer(doc, scores[doc] / (norm * m_norms[doc]));
+            scores[doc] = 0;
+        }
+        return top.drain(topScores);
+    }
+}
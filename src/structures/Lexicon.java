@@ -0,0 +1,79 @@
+/**
+ *
+ */
+package structures;
+
+/**
+ * Read-only view of an N-gram vocabulary with its corpus statistics: what encoding a review
+ * against a controlled vocabulary needs. Implemented by the in-memory Vocabulary built during
+ * training and by MappedVocabulary, which reads the same data from a file.
+ */
+public interface Lexicon {
+
+    /* words */
+
+    int numWords();
+
+    String getWord(int word);
+
+    // ID of a word, or -1 if it is not in the vocabulary
+    int getWordID(String word);
+
+    /* terms */
+
+    int size();
+
+    // term ID of the N-gram words[off..off+n), or -1 if it is not in the vocabulary
+    int getID(int[] words, int off, int n, long hash);
+
+    int getOrder(int id);
+
+    // copy the word IDs of a term into buffer and return N
+    int getWords(int id, int[] buffer);
+
+    // term ID of an N-gram in its string form, or -1 if it is not in the vocabulary
+    default int getID(String term) {
+        String[] parts = term.split(Vocabulary.SEPARATOR);
+        int[] words = new int[parts.length];
+        for (int i = 0; i < parts.length; i++)
+            words[i] = getWordID(parts[i]);
+        return getID(words, 0, words.length, Vocabulary.hash(words, 0, words.length));
+    }
+
+    default boolean contains(String term) {
+        return getID(term) >= 0;
+    }
+
+    // string form of a term, e.g. "great-food" for a bigram
+    default String getTerm(int id) {
+        return appendTerm(new StringBuilder(), id).toString();
+    }
+
+    default StringBuilder appendTerm(StringBuilder buffer, int id) {
+        int[] words = new int[getOrder(id)];
+        int n = getWords(id, words);
+        for (int i = 0; i < n; i++) {
+            if (i > 0)
+                buffer.append(Vocabulary.SEPARATOR);
+            buffer.append(getWord(words[i]));
+        }
+        return buffer;
+    }
+
+    /* statistics */
+
+    long getTTF(int id);
+
+    int getDF(int id);
+
+    // number of reviews counted into the DF
+    int getNumDocs();
+
+    // 1 + log(N/DF), or 1 when the DF of the term is unknown (e.g. a plain-text controlled vocabulary)
+    default double getIDF(int id) {
+        int df = getDF(id);
+        if (df <= 0 || getNumDocs() <= 0)
+            return 1;
+        return 1 + Math.log((double) getNumDocs() / df);
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ *
+ */
+package structures;
+
+/**
+ * Open-addressing hash map from long keys to non-negative int values, without boxing.
+ */
+public class LongIntMap {
+
+    long[] m_keys;
+    int[] m_values;     // value+1, 0 marks an empty slot
+    int m_size;
+    int m_mask;
+
+    public LongIntMap() {
+        this(16);
+    }
+
+    public LongIntMap(int capacity) {
+        int size = 16;
+        while (size * 3 < capacity * 4)
+            size <<= 1;
+        m_keys = new long[size];
+        m_values = new int[size];
+        m_mask = size - 1;
+        m_size = 0;
+    }
+
+    // murmur3 finalizer, spreads packed ID pairs over the whole table
+    static int slot(long key, int mask) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+
+    public int size() {
+        return m_size;
+    }
+
+    // value stored for key, or -1 if absent
+    public int get(long key) {
+        for (int i = slot(key, m_mask); ; i = (i + 1) & m_mask) {
+            if (m_values[i] == 0)
+                return -1;
+            if (m_keys[i] == key)
+                return m_values[i] - 1;
+        }
+    }
+
+    public void put(long key, int value) {
+        int i = slot(key, m_mask);
+        for (; m_values[i] != 0; i = (i + 1) & m_mask) {
+            if (m_keys[i] == key) {
+                m_values[i] = value + 1;
+                return;
+            }
+        }
+
+        m_keys[i] = key;
+        m_values[i] = value + 1;
+        if (++m_size * 4 > m_keys.length * 3)
+            rehash(m_keys.length * 2);
+    }
+
+    void rehash(int size) {
+        long[] keys = m_keys;
+        int[] values = m_values;
+        m_keys = new long[size];
+        m_values = new int[size];
+        m_mask = size - 1;
+
+        for (int j = 0; j < keys.length; j++) {
+            if (values[j] == 0)
+                continue;
+            int i = slot(keys[j], m_mask);
+            while (m_values[i] != 0)
+                i = (i + 1) & m_mask;
+            m_keys[i] = keys[j];
+            m_values[i] = values[j];
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/**
+ *
+ */
+package structures;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Vocabulary file memory-mapped read-only, so opening it costs the same whatever its size:
+ * lookups binary-search the mapped arrays and only the pages actually touched are read.
+ * Words are stored as UTF-8 in byte order and numbered by rank; each term keeps its training ID,
+ * its word IDs, TTF and DF, plus an index of the term IDs ordered by (N, word IDs).
+ *
+ * Layout (big-endian): header of 7 ints {MAGIC, VERSION, numDocs, numWords, numTerms, wordBytes,
+ * gramInts}, then long ttf[numTerms], int df[numTerms], int termStart[numTerms+1],
+ * int grams[gramInts], int sorted[numTerms], int wordStart[numWords+1], byte words[wordBytes].
+ */
+public class MappedVocabulary implements Lexicon {
+
+    static final int MAGIC = 0x564F4342;    // "VOCB"
+    static final int VERSION = 1;
+    static final int HEADER = 7 * 4;
+
+    int m_numDocs;
+    int m_numWords;
+    int m_size;             // number of terms
+
+    LongBuffer m_ttf;       // term ID -> total term frequency
+    IntBuffer m_df;         // term ID -> document frequency
+    IntBuffer m_termStart;  // term ID -> position of its words in m_grams
+    IntBuffer m_grams;      // word IDs of all terms, back to back
+    IntBuffer m_sorted;     // term IDs ordered by N, then word IDs
+    IntBuffer m_wordStart;  // word ID -> position of its bytes in m_wordBytes
+    ByteBuffer m_wordBytes; // UTF-8 of all words in byte order
+
+    public MappedVocabulary(String filename) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.limit() < HEADER || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+            throw new IOException("Not a vocabulary file: " + filename);
+        m_numDocs = buffer.getInt(8);
+        m_numWords = buffer.getInt(12);
+        m_size = buffer.getInt(16);
+        int wordBytes = buffer.getInt(20);
+        int gramInts = buffer.getInt(24);
+
+        int position = HEADER;
+        m_ttf = section(buffer, position, m_size * 8).asLongBuffer();
+        position += m_size * 8;
+        m_df = section(buffer, position, m_size * 4).asIntBuffer();
+        position += m_size * 4;
+        m_termStart = section(buffer, position, (m_size + 1) * 4).asIntBuffer();
+        position += (m_size + 1) * 4;
+        m_grams = section(buffer, position, gramInts * 4).asIntBuffer();
+        position += gramInts * 4;
+        m_sorted = section(buffer, position, m_size * 4).asIntBuffer();
+        position += m_size * 4;
+        m_wordStart = section(buffer, position, (m_numWords + 1) * 4).asIntBuffer();
+        position += (m_numWords + 1) * 4;
+        m_wordBytes = section(buffer, position, wordBytes);
+    }
+
+    // view of bytes [position, position+length) of the mapped file
+    static ByteBuffer section(ByteBuffer buffer, int position, int length) throws IOException {
+        if (position + length > buffer.limit())
+            throw new IOException("Truncated vocabulary file");
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        view.limit(position + length);
+        return view.slice();
+    }
+
+    // write any vocabulary in the mapped format; term IDs are kept, word IDs become byte-order ranks.
+    // The file is written under a temporary name and renamed, so a crash never leaves it truncated
+    public static void write(Lexicon vocab, String filename) throws IOException {
+        int numWords = vocab.numWords(), size = vocab.size();
+
+        byte[][] bytes = new byte[numWords][];
+        Integer[] byRank = new Integer[numWords];
+        for (int w = 0; w < numWords; w++) {
+            bytes[w] = vocab.getWord(w).getBytes(StandardCharsets.UTF_8);
+            byRank[w] = w;
+        }
+        Arrays.sort(byRank, (w1, w2) -> compareBytes(bytes[w1], bytes[w2]));
+        int[] rank = new int[numWords];
+        int wordBytes = 0;
+        for (int r = 0; r < numWords; r++) {
+            rank[byRank[r]] = r;
+            wordBytes += bytes[byRank[r]].length;
+        }
+
+        // every term's words, renumbered by rank
+        int[] termStart = new int[size + 1];
+        int[] grams = new int[16];
+        int[] buffer = new int[16];
+        for (int id = 0; id < size; id++) {
+            int n = vocab.getOrder(id);
+            if (n > buffer.length)
+                buffer = new int[n];
+            vocab.getWords(id, buffer);
+            if (termStart[id] + n > grams.length)
+                grams = Arrays.copyOf(grams, Math.max(grams.length * 2, termStart[id] + n));
+            for (int i = 0; i < n; i++)
+                grams[termStart[id] + i] = rank[buffer[i]];
+            termStart[id + 1] = termStart[id] + n;
+        }
+
+        Integer[] sorted = new Integer[size];
+        for (int id = 0; id < size; id++)
+            sorted[id] = id;
+        int[] allGrams = grams;
+        Arrays.sort(sorted, (t1, t2) -> compareTerms(allGrams, termStart, t1, t2));
+
+        File temp = new File(filename + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(vocab.getNumDocs());
+            out.writeInt(numWords);
+            out.writeInt(size);
+            out.writeInt(wordBytes);
+            out.writeInt(termStart[size]);
+
+            for (int id = 0; id < size; id++)
+                out.writeLong(vocab.getTTF(id));
+            for (int id = 0; id < size; id++)
+                out.writeInt(vocab.getDF(id));
+            for (int id = 0; id <= size; id++)
+                out.writeInt(termStart[id]);
+            for (int i = 0; i < termStart[size]; i++)
+                out.writeInt(grams[i]);
+            for (int i = 0; i < size; i++)
+                out.writeInt(sorted[i]);
+
+            int start = 0;
+            for (int r = 0; r < numWords; r++) {
+                out.writeInt(start);
+                start += bytes[byRank[r]].length;
+            }
+            out.writeInt(start);
+            for (int r = 0; r < numWords; r++)
+                out.write(bytes[byRank[r]]);
+        }
+        Files.move(temp.toPath(), Paths.get(filename), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // unsigned byte order, which for UTF-8 is code point order
+    static int compareBytes(byte[] b1, byte[] b2) {
+        for (int i = 0; i < b1.length && i < b2.length; i++) {
+            int c = (b1[i] & 0xFF) - (b2[i] & 0xFF);
+            if (c != 0)
+                return c;
+        }
+        return b1.length - b2.length;
+    }
+
+    // order by N first, then word by word
+    static int compareTerms(int[] grams, int[] termStart, int t1, int t2) {
+        int n1 = termStart[t1 + 1] - termStart[t1], n2 = termStart[t2 + 1] - termStart[t2];
+        if (n1 != n2)
+            return n1 - n2;
+        for (int i = 0; i < n1; i++) {
+            int c = Integer.compare(grams[termStart[t1] + i], grams[termStart[t2] + i]);
+            if (c != 0)
+                return c;
+        }
+        return 0;
+    }
+
+    /* words */
+
+    public int numWords() {
+        return m_numWords;
+    }
+
+    public String getWord(int word) {
+        int start = m_wordStart.get(word);
+        byte[] bytes = new byte[m_wordStart.get(word + 1) - start];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = m_wordBytes.get(start + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public int getWordID(String word) {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        int lo = 0, hi = m_numWords - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compareWord(mid, bytes);
+            if (c < 0)
+                lo = mid + 1;
+            else if (c > 0)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    int compareWord(int word, byte[] bytes) {
+        int start = m_wordStart.get(word), length = m_wordStart.get(word + 1) - start;
+        for (int i = 0; i < length && i < bytes.length; i++) {
+            int c = (m_wordBytes.get(start + i) & 0xFF) - (bytes[i] & 0xFF);
+            if (c != 0)
+                return c;
+        }
+        return length - bytes.length;
+    }
+
+    /* terms */
+
+    public int size() {
+        return m_size;
+    }
+
+    // the hash is not needed: terms are found by binary search over the sorted index
+    public int getID(int[] words, int off, int n, long hash) {
+        for (int i = off; i < off + n; i++) {
+            if (words[i] < 0)
+                return -1;
+        }
+
+        int lo = 0, hi = m_size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int id = m_sorted.get(mid);
+            int c = compareTerm(id, words, off, n);
+            if (c < 0)
+                lo = mid + 1;
+            else if (c > 0)
+                hi = mid - 1;
+            else
+                return id;
+        }
+        return -1;
+    }
+
+    int compareTerm(int id, int[] words, int off, int n) {
+        int start = m_termStart.get(id), order = m_termStart.get(id + 1) - start;
+        if (order != n)
+            return order - n;
+        for (int i = 0; i < n; i++) {
+            int c = Integer.compare(m_grams.get(start + i), words[off + i]);
+            if (c != 0)
+                return c;
+        }
+        return 0;
+    }
+
+    public int getOrder(int id) {
+        return m_termStart.get(id + 1) - m_termStart.get(id);
+    }
+
+    public int getWords(int id, int[] buffer) {
+        int start = m_termStart.get(id), n = m_termStart.get(id + 1) - start;
+        for (int i = 0; i < n; i++)
+            buffer[i] = m_grams.get(start + i);
+        return n;
+    }
+
+    /* statistics */
+
+    public long getTTF(int id) {
+        return m_ttf.get(id);
+    }
+
+    public int getDF(int id) {
+        return m_df.get(id);
+    }
+
+    public int getNumDocs() {
+        return m_numDocs;
+    }
+}
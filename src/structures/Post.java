@@ -87,17 +87,30 @@ public class Post {
 		m_tokens = tokens;
 	}
 	
-	HashMap<String, Token> m_vector; // suggested sparse structure for storing the vector space representation with N-grams for this document
-	public HashMap<String, Token> getVct() {
+	SparseVector m_vector; // sparse TF-IDF vector over the N-gram IDs of the controlled vocabulary
+	public SparseVector getVct() {
 		return m_vector;
 	}
 	
-	public void setVct(HashMap<String, Token> vct) {
+	public void setVct(SparseVector vct) {
 		m_vector = vct;
 	}
+
+	// old map form, with the TF-IDF weight of each N-gram in val2
+	public void setVct(HashMap<String, Token> vct, Lexicon vocab) {
+		m_vector = SparseVector.fromMap(vct, vocab);
+	}
+
+	// L2 norm of the vector, computed once when the vector is built
+	public double getNorm() {
+		return m_vector == null ? 0 : m_vector.getNorm();
+	}
 	
 	public double similiarity(Post p) {
-		return 0;//compute the cosine similarity between this post and input p based on their vector space representation
+		//compute the cosine similarity between this post and input p based on their vector space representation
+		if (m_vector == null || p.m_vector == null)
+			return 0;
+		return m_vector.cosine(p.m_vector);
 	}
 	
 	public Post(JSONObject json) {
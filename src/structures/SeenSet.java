@@ -0,0 +1,44 @@
+/**
+ *
+ */
+package structures;
+
+import java.util.Arrays;
+
+/**
+ * Set of term IDs already seen in the current document, used to count each term once per
+ * document into its DF. Every ID carries the epoch it was last added in, so starting the next
+ * document is just a new epoch instead of clearing the array. Not thread-safe: one per thread.
+ */
+public class SeenSet {
+
+    int[] m_stamps;     // term ID -> epoch it was last added in
+    int m_epoch;        // current document
+
+    public SeenSet() {
+        m_stamps = new int[1024];
+        m_epoch = 1;
+    }
+
+    // empty the set for the next document
+    public void clear() {
+        if (++m_epoch == Integer.MAX_VALUE) {
+            Arrays.fill(m_stamps, 0);
+            m_epoch = 1;
+        }
+    }
+
+    // add a term ID, returning whether it was new in the current document
+    public boolean add(int id) {
+        if (id >= m_stamps.length)
+            m_stamps = Arrays.copyOf(m_stamps, Math.max(id + 1, m_stamps.length * 2));
+        if (m_stamps[id] == m_epoch)
+            return false;
+        m_stamps[id] = m_epoch;
+        return true;
+    }
+
+    public boolean contains(int id) {
+        return id < m_stamps.length && m_stamps[id] == m_epoch;
+    }
+}
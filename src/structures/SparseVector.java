@@ -0,0 +1,129 @@
+/**
+ *
+ */
+package structures;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact sparse vector: parallel arrays of term IDs in ascending order and their weights.
+ * Dot products are merge-joins over the sorted IDs; when one vector is much shorter than
+ * the other its IDs are binary-searched in the longer one instead.
+ */
+public class SparseVector {
+
+    static final int GALLOP_RATIO = 8;     // length ratio from which searching beats merging
+
+    int[] m_ids;            // term IDs, strictly increasing
+    double[] m_weights;     // weight of each term
+    double m_norm;          // L2 norm, computed once
+
+    // ids[0..size) must be strictly increasing; the arrays are copied
+    public SparseVector(int[] ids, double[] weights, int size) {
+        m_ids = Arrays.copyOf(ids, size);
+        m_weights = Arrays.copyOf(weights, size);
+
+        double norm = 0;
+        for (int i = 0; i < size; i++)
+            norm += weights[i] * weights[i];
+        m_norm = Math.sqrt(norm);
+    }
+
+    // convert the old map form, taking each N-gram's weight from val2; N-grams missing from vocab are dropped
+    public static SparseVector fromMap(Map<String, Token> vector, Lexicon vocab) {
+        long[] entries = new long[vector.size()];
+        double[] values = new double[vector.size()];
+        int size = 0;
+        for (Map.Entry<String, Token> entry : vector.entrySet()) {
+            int id = vocab.getID(entry.getKey());
+            if (id >= 0) {
+                values[size] = entry.getValue().getVal2();
+                entries[size] = ((long) id << 32) | size;   // sort by ID, remember the weight's slot
+                size++;
+            }
+        }
+        Arrays.sort(entries, 0, size);
+
+        int[] ids = new int[size];
+        double[] weights = new double[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = (int) (entries[i] >>> 32);
+            weights[i] = values[(int) entries[i]];
+        }
+        return new SparseVector(ids, weights, size);
+    }
+
+    // back to the map form, with the weight in val2
+    public HashMap<String, Token> toMap(Lexicon vocab) {
+        HashMap<String, Token> vector = new HashMap<>();
+        for (int i = 0; i < m_ids.length; i++) {
+            Token t = new Token(vocab.getTerm(m_ids[i]));
+            t.setVal2(m_weights[i]);
+            vector.put(t.getToken(), t);
+        }
+        return vector;
+    }
+
+    public int size() {
+        return m_ids.length;
+    }
+
+    public int getID(int i) {
+        return m_ids[i];
+    }
+
+    public double getWeight(int i) {
+        return m_weights[i];
+    }
+
+    public double getNorm() {
+        return m_norm;
+    }
+
+    public double dot(SparseVector v) {
+        SparseVector shorter = this, longer = v;
+        if (shorter.size() > longer.size()) {
+            shorter = v;
+            longer = this;
+        }
+        if ((long) shorter.size() * GALLOP_RATIO < longer.size())
+            return shorter.searchDot(longer);
+
+        // merge-join over the two sorted ID lists
+        int[] ids1 = m_ids, ids2 = v.m_ids;
+        double dot = 0;
+        for (int i = 0, j = 0; i < ids1.length && j < ids2.length; ) {
+            if (ids1[i] < ids2[j])
+                i++;
+            else if (ids1[i] > ids2[j])
+                j++;
+            else
+                dot += m_weights[i++] * v.m_weights[j++];
+        }
+        return dot;
+    }
+
+    // dot product with a much longer vector: binary search for each of our IDs
+    double searchDot(SparseVector longer) {
+        double dot = 0;
+        int from = 0;
+        for (int i = 0; i < m_ids.length && from < longer.m_ids.length; i++) {
+            int j = Arrays.binarySearch(longer.m_ids, from, longer.m_ids.length, m_ids[i]);
+            if (j >= 0) {
+                dot += m_weights[i] * longer.m_weights[j];
+                from = j + 1;
+            }
+            else
+                from = -j - 1;
+        }
+        return dot;
+    }
+
+    public double cosine(SparseVector v) {
+        if (m_norm == 0 || v.m_norm == 0)
+            return 0;
+        return dot(v) / (m_norm * v.m_norm);
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ *
+ */
+package structures;
+
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Selection of term IDs by a statistic such as TTF or DF, without sorting the whole dictionary
+ * unless a full rank is really needed: the k best through a bounded heap in O(n log k), all terms
+ * above a threshold in one O(n) pass, and a full rank as a parallel sort of packed primitive keys.
+ * Ranks are by decreasing statistic, equal statistics by increasing ID.
+ */
+public class TermSelection {
+
+    // the k terms of [0, size) with the highest statistic, best first
+    public static int[] top(int size, IntToLongFunction stat, int k) {
+        TopK top = new TopK(Math.min(k, size));
+        for (int id = 0; id < size; id++)
+            top.offer(id, stat.applyAsLong(id));
+        return top.drain(null);
+    }
+
+    // all terms of [0, size) whose statistic is at least min, in ID order
+    public static int[] atLeast(int size, IntToLongFunction stat, long min) {
+        int[] ids = new int[size];
+        int count = 0;
+        for (int id = 0; id < size; id++) {
+            if (stat.applyAsLong(id) >= min)
+                ids[count++] = id;
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    // all terms of [0, size) ranked
+    public static int[] rank(int size, IntToLongFunction stat) {
+        int[] ids = new int[size];
+        for (int id = 0; id < size; id++)
+            ids[id] = id;
+        return rank(ids, stat);
+    }
+
+    // rank the given terms in place; each becomes one long key (max - stat, id) sorted in parallel
+    public static int[] rank(int[] ids, IntToLongFunction stat) {
+        long max = 0, maxID = 0;
+        for (int id : ids) {
+            max = Math.max(max, stat.applyAsLong(id));
+            maxID = Math.max(maxID, id);
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(maxID);
+        if (max >= 1L << (63 - shift))
+            return rankBoxed(ids, stat);    // statistic too large to share a long with the ID
+
+        long[] keys = new long[ids.length];
+        for (int i = 0; i < ids.length; i++)
+            keys[i] = ((max - stat.applyAsLong(ids[i])) << shift) | ids[i];
+        Arrays.parallelSort(keys);
+
+        long mask = (1L << shift) - 1;
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = (int) (keys[i] & mask);
+        return ids;
+    }
+
+    static int[] rankBoxed(int[] ids, IntToLongFunction stat) {
+        Integer[] boxed = new Integer[ids.length];
+        for (int i = 0; i < ids.length; i++)
+            boxed[i] = ids[i];
+        Arrays.sort(boxed, (id1, id2) -> {
+            int c = Long.compare(stat.applyAsLong(id2), stat.applyAsLong(id1));
+            return c != 0 ? c : Integer.compare(id1, id2);
+        });
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = boxed[i];
+        return ids;
+    }
+}
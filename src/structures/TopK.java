@@ -0,0 +1,106 @@
+/**
+ *
+ */
+package structures;
+
+/**
+ * Bounded min-heap keeping the k highest scored IDs seen so far; of equal scores the lower ID wins.
+ */
+public class TopK {
+
+    int m_k;
+    int[] m_ids;
+    double[] m_scores;
+    int m_size;
+
+    public TopK(int k) {
+        m_k = k;
+        m_ids = new int[k];
+        m_scores = new double[k];
+        m_size = 0;
+    }
+
+    public int size() {
+        return m_size;
+    }
+
+    public boolean isFull() {
+        return m_size == m_k;
+    }
+
+    // lowest score still kept; a new ID needs to beat it once the heap is full
+    public double threshold() {
+        return m_size == 0 ? Double.NEGATIVE_INFINITY : m_scores[0];
+    }
+
+    public void clear() {
+        m_size = 0;
+    }
+
+    public void offer(int id, double score) {
+        if (m_size < m_k) {
+            m_ids[m_size] = id;
+            m_scores[m_size] = score;
+            siftUp(m_size++);
+        }
+        else if (m_k > 0 && (score > m_scores[0] || score == m_scores[0] && id < m_ids[0])) {
+            m_ids[0] = id;
+            m_scores[0] = score;
+            siftDown(m_size);
+        }
+    }
+
+    // the kept IDs from best to worst, with their scores written to scores unless it is null; empties the heap
+    public int[] drain(double[] scores) {
+        int[] top = new int[m_size];
+        for (int i = m_size - 1; i >= 0; i--) {
+            top[i] = m_ids[0];
+            if (scores != null)
+                scores[i] = m_scores[0];
+            m_ids[0] = m_ids[i];
+            m_scores[0] = m_scores[i];
+            siftDown(i);
+        }
+        m_size = 0;
+        return top;
+    }
+
+    void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (!worse(i, parent))
+                break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    void siftDown(int size) {
+        int i = 0;
+        for (;;) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && worse(child + 1, child))
+                child++;
+            if (!worse(child, i))
+                break;
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    // entry i ranks below entry j
+    boolean worse(int i, int j) {
+        return m_scores[i] < m_scores[j] || m_scores[i] == m_scores[j] && m_ids[i] > m_ids[j];
+    }
+
+    void swap(int i, int j) {
+        int id = m_ids[i];
+        m_ids[i] = m_ids[j];
+        m_ids[j] = id;
+        double score = m_scores[i];
+        m_scores[i] = m_scores[j];
+        m_scores[j] = score;
+    }
+}
@@ -0,0 +1,457 @@
+/**
+ *
+ */
+package structures;
+
+import java.util.Arrays;
+
+/**
+ * Dictionary of N-grams with dense integer IDs.
+ * Unigram surface forms ("words") are interned once through an open-addressing string table.
+ * An N-gram is then keyed by a long built from its word IDs, so it never needs its own String:
+ * the "w1-w2-..." form is only reconstructed on export. Unigrams and bigrams pack their word IDs
+ * into the key exactly; longer N-grams are keyed by a polynomial hash of their word IDs and
+ * verified against the stored words. Statistics live in primitive arrays indexed by term ID.
+ */
+public class Vocabulary implements Lexicon {
+
+    public static final String SEPARATOR = "-";    // joins the words of an N-gram in its string form
+    public static final long PRIME = 0x9E3779B97F4A7C15L;  // multiplier of the N-gram hash
+
+    String[] m_words;       // word ID -> surface form
+    int[] m_wordTable;      // open-addressing slots holding word ID+1, 0 marks an empty slot
+    int m_wordMask;
+    int m_numWords;
+
+    long[] m_keys;          // term ID -> packed word IDs, or the hash of an N-gram longer than 2
+    byte[] m_order;         // term ID -> N
+    int[] m_offset;         // term ID -> position of its words in m_grams when N > 2
+    int[] m_next;           // term ID -> next term with the same hash when N > 2, -1 ends the chain
+    int[] m_grams;          // word IDs of the N-grams longer than 2
+    int m_gramSize;
+    long[] m_ttf;           // term ID -> total term frequency
+    int[] m_df;             // term ID -> document frequency
+    LongIntMap m_index;     // packed word IDs -> term ID
+    LongIntMap m_hashIndex; // N-gram hash -> first term ID of its chain
+    int m_size;             // number of terms
+    int m_numDocs;          // number of reviews counted into the DF
+
+    public Vocabulary() {
+        this(1024);
+    }
+
+    public Vocabulary(int capacity) {
+        capacity = Math.max(16, capacity);
+        m_words = new String[capacity];
+        m_wordTable = new int[tableSize(capacity)];
+        m_wordMask = m_wordTable.length - 1;
+        m_numWords = 0;
+
+        m_keys = new long[capacity];
+        m_order = new byte[capacity];
+        m_offset = new int[capacity];
+        m_next = new int[capacity];
+        m_grams = new int[64];
+        m_gramSize = 0;
+        m_ttf = new long[capacity];
+        m_df = new int[capacity];
+        m_index = new LongIntMap(capacity);
+        m_hashIndex = new LongIntMap();
+        m_size = 0;
+        m_numDocs = 0;
+    }
+
+    // modifiable copy of any vocabulary, e.g. a mapped one; term IDs are kept
+    public Vocabulary(Lexicon lexicon) {
+        this(lexicon.size());
+        m_numDocs = lexicon.getNumDocs();
+
+        int[] words = wordMap(lexicon), buffer = new int[maxOrder(lexicon, null, lexicon.size())];
+        for (int i = 0; i < lexicon.size(); i++) {
+            int id = copyTerm(lexicon, i, words, buffer);
+            m_ttf[id] = lexicon.getTTF(i);
+            m_df[id] = lexicon.getDF(i);
+        }
+    }
+
+    // smallest power of two keeping the table at most 3/4 full
+    static int tableSize(int capacity) {
+        int size = 16;
+        while (size * 3 < capacity * 4)
+            size <<= 1;
+        return size;
+    }
+
+    static int slot(int hash, int mask) {
+        hash *= 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    // a unigram is keyed by its word ID with -1 in the upper half, which no bigram can have
+    public static long unigramKey(int word) {
+        return 0xFFFFFFFF00000000L | word;
+    }
+
+    public static long bigramKey(int word1, int word2) {
+        return ((long) word1 << 32) | (word2 & 0xFFFFFFFFL);
+    }
+
+    // one step of the N-gram hash, prepending a word to an N-gram with hash h
+    public static long extendHash(long h, int word) {
+        return h * PRIME + word + 1;
+    }
+
+    // hash of words[off..off+n), built from the last word backwards as the extractor does
+    public static long hash(int[] words, int off, int n) {
+        long h = 0;
+        for (int i = off + n - 1; i >= off; i--)
+            h = extendHash(h, words[i]);
+        return h;
+    }
+
+    /* words */
+
+    public int numWords() {
+        return m_numWords;
+    }
+
+    public String getWord(int word) {
+        return m_words[word];
+    }
+
+    // ID of a word, or -1 if it has never been seen
+    public int getWordID(String word) {
+        for (int i = slot(word.hashCode(), m_wordMask); ; i = (i + 1) & m_wordMask) {
+            int id = m_wordTable[i] - 1;
+            if (id < 0)
+                return -1;
+            if (m_words[id].equals(word))
+                return id;
+        }
+    }
+
+    // ID of a word, interning it if it is new
+    public int addWord(String word) {
+        int i = slot(word.hashCode(), m_wordMask);
+        for (; ; i = (i + 1) & m_wordMask) {
+            int id = m_wordTable[i] - 1;
+            if (id < 0)
+                break;
+            if (m_words[id].equals(word))
+                return id;
+        }
+
+        if (m_numWords == m_words.length) {
+            growWords();
+            return addWord(word);
+        }
+
+        int id = m_numWords++;
+        m_words[id] = word;
+        m_wordTable[i] = id + 1;
+        return id;
+    }
+
+    void growWords() {
+        m_words = Arrays.copyOf(m_words, m_words.length * 2);
+        m_wordTable = new int[tableSize(m_words.length)];
+        m_wordMask = m_wordTable.length - 1;
+        for (int id = 0; id < m_numWords; id++) {
+            int i = slot(m_words[id].hashCode(), m_wordMask);
+            while (m_wordTable[i] != 0)
+                i = (i + 1) & m_wordMask;
+            m_wordTable[i] = id + 1;
+        }
+    }
+
+    /* terms */
+
+    public int size() {
+        return m_size;
+    }
+
+    // term ID of a packed key, or -1 if it is not in the vocabulary
+    public int getID(long key) {
+        return m_index.get(key);
+    }
+
+    // term ID of a packed unigram or bigram key, adding the term with zero counts if it is new
+    public int add(long key) {
+        int id = m_index.get(key);
+        if (id >= 0)
+            return id;
+
+        id = newTerm(key, (key >>> 32) == 0xFFFFFFFFL ? 1 : 2);
+        m_index.put(key, id);
+        return id;
+    }
+
+    int newTerm(long key, int order) {
+        if (m_size == m_keys.length)
+            grow();
+        int id = m_size++;
+        m_keys[id] = key;
+        m_order[id] = (byte) order;
+        m_offset[id] = -1;
+        m_next[id] = -1;
+        return id;
+    }
+
+    void grow() {
+        int capacity = m_keys.length * 2;
+        m_keys = Arrays.copyOf(m_keys, capacity);
+        m_order = Arrays.copyOf(m_order, capacity);
+        m_offset = Arrays.copyOf(m_offset, capacity);
+        m_next = Arrays.copyOf(m_next, capacity);
+        m_ttf = Arrays.copyOf(m_ttf, capacity);
+        m_df = Arrays.copyOf(m_df, capacity);
+    }
+
+    public int getUnigram(int word) {
+        return word < 0 ? -1 : getID(unigramKey(word));
+    }
+
+    public int getBigram(int word1, int word2) {
+        return word1 < 0 || word2 < 0 ? -1 : getID(bigramKey(word1, word2));
+    }
+
+    public int addUnigram(int word) {
+        return add(unigramKey(word));
+    }
+
+    public int addBigram(int word1, int word2) {
+        return add(bigramKey(word1, word2));
+    }
+
+    // term ID of the N-gram words[off..off+n), or -1 if it is not in the vocabulary
+    public int getID(int[] words, int off, int n) {
+        return getID(words, off, n, n > 2 ? hash(words, off, n) : 0);
+    }
+
+    // same lookup when the caller already maintains the hash of the window
+    public int getID(int[] words, int off, int n, long hash) {
+        for (int i = off; i < off + n; i++) {
+            if (words[i] < 0)
+                return -1;
+        }
+        if (n == 1)
+            return getID(unigramKey(words[off]));
+        if (n == 2)
+            return getID(bigramKey(words[off], words[off + 1]));
+
+        for (int id = m_hashIndex.get(hash); id >= 0; id = m_next[id]) {
+            if (matches(id, words, off, n))
+                return id;
+        }
+        return -1;
+    }
+
+    boolean matches(int id, int[] words, int off, int n) {
+        if (m_order[id] != n)
+            return false;
+        for (int i = 0; i < n; i++) {
+            if (m_grams[m_offset[id] + i] != words[off + i])
+                return false;
+        }
+        return true;
+    }
+
+    // term ID of the N-gram words[off..off+n), adding it if it is new; all words must be valid IDs
+    public int add(int[] words, int off, int n) {
+        return add(words, off, n, n > 2 ? hash(words, off, n) : 0);
+    }
+
+    public int add(int[] words, int off, int n, long hash) {
+        if (n == 1)
+            return addUnigram(words[off]);
+        if (n == 2)
+            return addBigram(words[off], words[off + 1]);
+
+        int head = m_hashIndex.get(hash);
+        for (int id = head; id >= 0; id = m_next[id]) {
+            if (matches(id, words, off, n))
+                return id;
+        }
+
+        int id = newTerm(hash, n);
+        if (m_gramSize + n > m_grams.length)
+            m_grams = Arrays.copyOf(m_grams, Math.max(m_grams.length * 2, m_gramSize + n));
+        System.arraycopy(words, off, m_grams, m_gramSize, n);
+        m_offset[id] = m_gramSize;
+        m_gramSize += n;
+        m_next[id] = head;
+        m_hashIndex.put(hash, id);
+        return id;
+    }
+
+    public int getOrder(int id) {
+        return m_order[id];
+    }
+
+    // copy the word IDs of a term into buffer and return N
+    public int getWords(int id, int[] buffer) {
+        int n = m_order[id];
+        if (n > 2)
+            System.arraycopy(m_grams, m_offset[id], buffer, 0, n);
+        else if (n == 2) {
+            buffer[0] = (int) (m_keys[id] >>> 32);
+            buffer[1] = (int) m_keys[id];
+        }
+        else
+            buffer[0] = (int) m_keys[id];
+        return n;
+    }
+
+    // term ID of an N-gram in its string form, adding it if it is new
+    public int add(String term) {
+        String[] parts = term.split(SEPARATOR);
+        int[] words = new int[parts.length];
+        for (int i = 0; i < parts.length; i++)
+            words[i] = addWord(parts[i]);
+        return add(words, 0, words.length);
+    }
+
+    public long getKey(int id) {
+        return m_keys[id];
+    }
+
+    // string form without going through getWords
+    @Override
+    public StringBuilder appendTerm(StringBuilder buffer, int id) {
+        int n = m_order[id];
+        if (n > 2) {
+            for (int i = 0; i < n; i++) {
+                if (i > 0)
+                    buffer.append(SEPARATOR);
+                buffer.append(m_words[m_grams[m_offset[id] + i]]);
+            }
+            return buffer;
+        }
+
+        long key = m_keys[id];
+        if (n == 2)
+            buffer.append(m_words[(int) (key >>> 32)]).append(SEPARATOR);
+        return buffer.append(m_words[(int) key]);
+    }
+
+    public long getTTF(int id) {
+        return m_ttf[id];
+    }
+
+    public int getDF(int id) {
+        return m_df[id];
+    }
+
+    public int getNumDocs() {
+        return m_numDocs;
+    }
+
+    public void setNumDocs(int numDocs) {
+        m_numDocs = numDocs;
+    }
+
+    // count one more review into the corpus size used by the IDF
+    public void addDocument() {
+        m_numDocs++;
+    }
+
+    // count one occurrence of a term; DF grows on its first occurrence in a review, e.g. as told by a SeenSet
+    public void count(int id, boolean firstInDocument) {
+        m_ttf[id]++;
+        if (firstInDocument)
+            m_df[id]++;
+    }
+
+    // copy a term of another vocabulary into this one, translating its word IDs
+    int copyTerm(Lexicon other, int id, int[] words, int[] buffer) {
+        int n = other.getWords(id, buffer);
+        for (int i = 0; i < n; i++)
+            buffer[i] = wordOf(other, buffer[i], words);
+        return add(buffer, 0, n);
+    }
+
+    int maxOrder() {
+        int n = 2;
+        for (int id = 0; id < m_size; id++)
+            n = Math.max(n, m_order[id]);
+        return n;
+    }
+
+    // longest N among the first count terms of ids, or of terms 0..count-1 when ids is null
+    static int maxOrder(Lexicon vocab, int[] ids, int count) {
+        int n = 2;
+        for (int i = 0; i < count; i++)
+            n = Math.max(n, vocab.getOrder(ids == null ? i : ids[i]));
+        return n;
+    }
+
+    // this vocabulary's ID for another vocabulary's word, interned on first use
+    int wordOf(Lexicon other, int word, int[] words) {
+        if (words[word] < 0)
+            words[word] = addWord(other.getWord(word));
+        return words[word];
+    }
+
+    int[] wordMap(Lexicon other) {
+        int[] words = new int[other.numWords()];
+        Arrays.fill(words, -1);
+        return words;
+    }
+
+    // add the counts of another vocabulary, e.g. one built by a worker thread
+    public void merge(Vocabulary other) {
+        m_numDocs += other.m_numDocs;
+        int[] words = wordMap(other), buffer = new int[other.maxOrder()];
+        for (int i = 0; i < other.m_size; i++) {
+            int id = copyTerm(other, i, words, buffer);
+            m_ttf[id] += other.m_ttf[i];
+            m_df[id] += other.m_df[i];
+        }
+    }
+
+    // take away the counts of another vocabulary, e.g. the reviews of a file that changed since;
+    // terms left with no occurrence keep their ID until compact
+    public void subtract(Vocabulary other) {
+        m_numDocs -= other.m_numDocs;
+        int[] buffer = new int[other.maxOrder()];
+        for (int i = 0; i < other.m_size; i++) {
+            int n = other.getWords(i, buffer);
+            for (int j = 0; j < n; j++)
+                buffer[j] = getWordID(other.m_words[buffer[j]]);
+            int id = getID(buffer, 0, n);
+            if (id >= 0) {
+                m_ttf[id] -= other.m_ttf[i];
+                m_df[id] -= other.m_df[i];
+            }
+        }
+    }
+
+    // new vocabulary without the terms that no longer occur, the others renumbered in ID order
+    public Vocabulary compact() {
+        int[] ids = new int[m_size];
+        int count = 0;
+        for (int id = 0; id < m_size; id++) {
+            if (m_ttf[id] > 0)
+                ids[count++] = id;
+        }
+        return subset(ids, count);
+    }
+
+    // new vocabulary holding the first count terms of ids, renumbered 0..count-1 in that order
+    public Vocabulary subset(int[] ids, int count) {
+        return subset(this, ids, count);
+    }
+
+    // same from any vocabulary, e.g. a mapped one, without copying the terms that are not kept
+    public static Vocabulary subset(Lexicon source, int[] ids, int count) {
+        Vocabulary vocab = new Vocabulary(count);
+        vocab.m_numDocs = source.getNumDocs();
+        int[] words = vocab.wordMap(source), buffer = new int[maxOrder(source, ids, count)];
+        for (int i = 0; i < count; i++) {
+            int id = vocab.copyTerm(source, ids[i], words, buffer);
+            vocab.m_ttf[id] = source.getTTF(ids[i]);
+            vocab.m_df[id] = source.getDF(ids[i]);
+        }
+        return vocab;
+    }
+}